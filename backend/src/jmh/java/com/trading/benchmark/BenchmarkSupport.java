@@ -0,0 +1,51 @@
+package com.trading.benchmark;
+
+import com.trading.model.TradeEvent;
+
+import java.lang.reflect.Field;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Shared helpers for benchmarks
+ */
+public final class BenchmarkSupport {
+
+    public static final String[] SYMBOLS = { "NIFTY", "BANKNIFTY", "SBIN", "RELIANCE" };
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Trade events with a fixed seed so every run measures the same data
+     */
+    public static TradeEvent[] tradeEvents(int count) {
+        Random random = new Random(42);
+        TradeEvent[] events = new TradeEvent[count];
+        long timestamp = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            events[i] = new TradeEvent(
+                new UUID(random.nextLong(), random.nextLong()),
+                SYMBOLS[random.nextInt(SYMBOLS.length)],
+                random.nextBoolean() ? "BUY" : "SELL",
+                1 + random.nextInt(500),
+                100 + random.nextInt(2500000) / 100.0,
+                timestamp + i
+            );
+        }
+        return events;
+    }
+
+    /**
+     * Inject a dependency into a Spring bean's private field (no Spring context in benchmarks)
+     */
+    public static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + name + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.trading.ignite;
+
+import com.trading.model.Position;
+import com.trading.model.PositionTotal;
+import org.apache.ignite.cache.query.QueryCursor;
+
+import javax.cache.Cache;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * PositionStore that drops all updates, for measuring PositionService without an Ignite cluster
+ */
+public class DiscardingPositionStore implements PositionStore {
+
+    private long version;
+
+    @Override
+    public Position get(String symbol) {
+        return null;
+    }
+
+    @Override
+    public void apply(Map<String, PositionUpdateProcessor> updates) {
+    }
+
+    @Override
+    public void mark(Map<String, MarkToMarketProcessor> marks) {
+    }
+
+    @Override
+    public void replaceAll(Map<String, PositionTotal> positions) {
+    }
+
+    @Override
+    public int size() {
+        return 0;
+    }
+
+    @Override
+    public Map<String, Position> scanAll(int pageSize) {
+        return Map.of();
+    }
+
+    @Override
+    public QueryCursor<Cache.Entry<String, Position>> subscribe(BiConsumer<String, Position> listener,
+                                                                Runnable onLost) {
+        throw new UnsupportedOperationException("Subscriptions are not supported");
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void incrementVersion() {
+        version++;
+    }
+}
@@ -0,0 +1,50 @@
+package com.trading.ignite;
+
+import com.trading.benchmark.BenchmarkSupport;
+import com.trading.model.TradeEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-trade accumulation in PositionEngine (run with -prof gc to check it does not allocate)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PositionEngineBenchmark {
+
+    private PositionEngine engine;
+    private TradeEvent[] events;
+    private int next;
+
+    @Setup
+    public void setup() {
+        engine = new PositionEngine(new PositionEngine.SymbolTable());
+        events = BenchmarkSupport.tradeEvents(1024);
+    }
+
+    @Benchmark
+    public void apply() {
+        next = (next + 1) & (events.length - 1);
+        TradeEvent trade = events[next];
+        int quantity = "BUY".equals(trade.getSide()) ? -trade.getQuantity() : trade.getQuantity();
+        engine.apply(trade.getSymbol(), quantity, trade.getPrice());
+        if (next == 0) {
+            // Keep the accumulated values bounded
+            engine.clear();
+        }
+    }
+}
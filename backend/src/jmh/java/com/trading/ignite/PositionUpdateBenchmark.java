@@ -0,0 +1,99 @@
+package com.trading.ignite;
+
+import com.trading.benchmark.BenchmarkSupport;
+import com.trading.metrics.TradeMetrics;
+import com.trading.model.TradeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
+import org.apache.ignite.spi.discovery.tcp.ipfinder.vm.TcpDiscoveryVmIpFinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Position math in PositionService against an embedded single-node Ignite
+ * The forked JVM needs the --add-opens flags of the ignite.jvmArgs property in pom.xml,
+ * which the benchmarks profile passes with -jvmArgsAppend
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PositionUpdateBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+
+    private Ignite ignite;
+    private PositionService positionService;
+    private TradeEvent[] events;
+    private List<TradeEvent> batch;
+    private int next;
+
+    @Setup
+    public void setup() {
+        IgniteConfiguration cfg = new IgniteConfiguration();
+        cfg.setIgniteInstanceName("position-benchmark");
+
+        // Single local server node - no multicast, no external cluster
+        TcpDiscoveryVmIpFinder ipFinder = new TcpDiscoveryVmIpFinder();
+        ipFinder.setAddresses(Collections.singletonList("127.0.0.1:47500..47509"));
+        TcpDiscoverySpi discoverySpi = new TcpDiscoverySpi();
+        discoverySpi.setIpFinder(ipFinder);
+        discoverySpi.setLocalAddress("127.0.0.1");
+        cfg.setDiscoverySpi(discoverySpi);
+
+        ignite = Ignition.start(cfg);
+
+        ThickPositionStore positionStore = new ThickPositionStore();
+        BenchmarkSupport.setField(positionStore, "ignite", ignite);
+        // Near caches cannot be created dynamically on a server node
+        BenchmarkSupport.setField(positionStore, "nearCacheEnabled", false);
+        BenchmarkSupport.setField(positionStore, "nearCacheMaxSize", 0);
+        positionStore.init();
+
+        positionService = new PositionService();
+        BenchmarkSupport.setField(positionService, "positionStore", positionStore);
+        BenchmarkSupport.setField(positionService, "tradeMetrics", new TradeMetrics(new SimpleMeterRegistry(), 1000));
+        BenchmarkSupport.setField(positionService, "scanPageSize", 1024);
+
+        events = BenchmarkSupport.tradeEvents(1024);
+        batch = Arrays.asList(Arrays.copyOf(events, BATCH_SIZE));
+    }
+
+    @TearDown
+    public void tearDown() {
+        ignite.close();
+    }
+
+    @Benchmark
+    public void updatePosition() {
+        TradeEvent event = events[next];
+        next = (next + 1) & (events.length - 1);
+        positionService.updatePosition(event.getSymbol(), event.getSide(), event.getQuantity(), event.getPrice());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void updatePositionsBatch() {
+        positionService.updatePositions(batch);
+    }
+}
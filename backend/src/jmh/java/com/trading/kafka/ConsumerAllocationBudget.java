@@ -0,0 +1,104 @@
+package com.trading.kafka;
+
+import com.trading.benchmark.BenchmarkSupport;
+import com.trading.ignite.DiscardingPositionStore;
+import com.trading.ignite.PositionService;
+import com.trading.metrics.TradeMetrics;
+import com.trading.model.Trade;
+import com.trading.model.TradeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Allocation budget for the consumer hot path (run by the benchmarks profile before JMH)
+ *
+ * Pushes binary-encoded trades through the same per-trade work as TradeConsumer (deserialization,
+ * PositionService.updatePositions, toTrade, metrics) without Kafka, Ignite or PostgreSQL, measures the
+ * bytes allocated by this thread after warmup (ThreadMXBean) and exits with 1 if the bytes per trade
+ * exceed the budget
+ *
+ * Usage: ConsumerAllocationBudget [maxBytesPerTrade]
+ */
+public final class ConsumerAllocationBudget {
+
+    private static final String TOPIC = "trade_orders";
+    private static final int BATCH_SIZE = 500;
+    private static final int WARMUP_BATCHES = 4000;
+    private static final int MEASURED_BATCHES = 4000;
+    private static final long DEFAULT_BUDGET_BYTES = 512;
+
+    private final TradeEventDeserializer deserializer = new TradeEventDeserializer();
+    private final TradeMetrics tradeMetrics = new TradeMetrics(new SimpleMeterRegistry(), 1000);
+    private final PositionService positionService = new PositionService();
+    private final byte[][] payloads;
+    private int next;
+    private long sink;
+
+    private ConsumerAllocationBudget() {
+        BenchmarkSupport.setField(positionService, "positionStore", new DiscardingPositionStore());
+        BenchmarkSupport.setField(positionService, "tradeMetrics", tradeMetrics);
+        BenchmarkSupport.setField(positionService, "scanPageSize", 1024);
+
+        TradeEventSerializer serializer = new TradeEventSerializer();
+        TradeEvent[] events = BenchmarkSupport.tradeEvents(1024);
+        payloads = new byte[events.length][];
+        for (int i = 0; i < events.length; i++) {
+            payloads[i] = serializer.serialize(TOPIC, events[i]);
+        }
+    }
+
+    public static void main(String[] args) {
+        long budget = args.length > 0 && !args[0].isBlank() ? Long.parseLong(args[0]) : DEFAULT_BUDGET_BYTES;
+
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("Thread allocation accounting is not supported by this JVM, skipping the check");
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        ConsumerAllocationBudget check = new ConsumerAllocationBudget();
+        check.run(WARMUP_BATCHES);
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        check.run(MEASURED_BATCHES);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        double bytesPerTrade = (double) allocated / ((long) MEASURED_BATCHES * BATCH_SIZE);
+        System.out.printf("Consumer hot path: %.1f bytes allocated per trade (budget %d, checksum %d)%n",
+            bytesPerTrade, budget, check.sink);
+        if (bytesPerTrade > budget) {
+            System.err.printf("Allocation budget exceeded: %.1f > %d bytes per trade%n", bytesPerTrade, budget);
+            System.exit(1);
+        }
+    }
+
+    private void run(int batches) {
+        for (int b = 0; b < batches; b++) {
+            // New lists per batch, as in TradeConsumer
+            List<TradeEvent> tradeEvents = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                tradeEvents.add(deserializer.deserialize(TOPIC, payloads[next]));
+                next = (next + 1) & (payloads.length - 1);
+            }
+
+            positionService.updatePositions(tradeEvents);
+
+            List<Trade> trades = new ArrayList<>(tradeEvents.size());
+            for (TradeEvent tradeEvent : tradeEvents) {
+                trades.add(TradeConsumer.toTrade(tradeEvent));
+            }
+
+            long now = System.currentTimeMillis();
+            for (TradeEvent tradeEvent : tradeEvents) {
+                tradeMetrics.recordTradeProcessed(tradeEvent.getSymbol(), tradeEvent.getTimestamp(), now);
+            }
+            // Keep the results reachable so nothing is optimized away
+            sink += trades.get(trades.size() - 1).getQuantity();
+        }
+    }
+}
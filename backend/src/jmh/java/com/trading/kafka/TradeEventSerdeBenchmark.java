@@ -0,0 +1,66 @@
+package com.trading.kafka;
+
+import com.trading.benchmark.BenchmarkSupport;
+import com.trading.model.TradeEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TradeEvent serialization and deserialization with the configured Kafka serializers
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TradeEventSerdeBenchmark {
+
+    private static final String TOPIC = "trade_orders";
+
+    @Param({ TradeEventSerializer.WIRE_FORMAT_BINARY, TradeEventSerializer.WIRE_FORMAT_JSON })
+    private String wireFormat;
+
+    private TradeEventSerializer serializer;
+    private TradeEventDeserializer deserializer;
+    private TradeEvent[] events;
+    private byte[][] payloads;
+    private int next;
+
+    @Setup
+    public void setup() {
+        serializer = new TradeEventSerializer();
+        serializer.configure(Map.of(TradeEventSerializer.WIRE_FORMAT_CONFIG, wireFormat), false);
+        deserializer = new TradeEventDeserializer();
+
+        events = BenchmarkSupport.tradeEvents(1024);
+        payloads = new byte[events.length][];
+        for (int i = 0; i < events.length; i++) {
+            payloads[i] = serializer.serialize(TOPIC, events[i]);
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        next = (next + 1) & (events.length - 1);
+        return serializer.serialize(TOPIC, events[next]);
+    }
+
+    @Benchmark
+    public TradeEvent deserialize() {
+        next = (next + 1) & (payloads.length - 1);
+        return deserializer.deserialize(TOPIC, payloads[next]);
+    }
+}
@@ -0,0 +1,43 @@
+package com.trading.kafka;
+
+import com.trading.benchmark.BenchmarkSupport;
+import com.trading.model.Trade;
+import com.trading.model.TradeEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TradeEvent to Trade mapping (including timestamp conversion) done by TradeConsumer
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TradeMappingBenchmark {
+
+    private TradeEvent[] events;
+    private int next;
+
+    @Setup
+    public void setup() {
+        events = BenchmarkSupport.tradeEvents(1024);
+    }
+
+    @Benchmark
+    public Trade toTrade() {
+        next = (next + 1) & (events.length - 1);
+        return TradeConsumer.toTrade(events[next]);
+    }
+}
@@ -0,0 +1,61 @@
+package com.trading.service;
+
+import com.trading.benchmark.BenchmarkSupport;
+import com.trading.model.AnalyticsResponse;
+import com.trading.model.DailySymbolStats;
+import com.trading.repository.DailySymbolStatsRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row mapping in AnalyticsService.getDailyAnalytics, with the database replaced by prebuilt rows
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DailyAnalyticsBenchmark {
+
+    @Param({ "4", "1000" })
+    private int symbols;
+
+    private AnalyticsService analyticsService;
+
+    @Setup
+    public void setup() {
+        LocalDate today = LocalDate.now();
+        List<DailySymbolStats> rows = new ArrayList<>(symbols);
+        for (int i = 0; i < symbols; i++) {
+            rows.add(new DailySymbolStats(today, "SYM" + i, -50L * i, -1105000.0 * i, 10L * i));
+        }
+
+        analyticsService = new AnalyticsService();
+        BenchmarkSupport.setField(analyticsService, "dailySymbolStatsRepository", new DailySymbolStatsRepository() {
+            @Override
+            public List<DailySymbolStats> findByDate(LocalDate date) {
+                return rows;
+            }
+        });
+    }
+
+    @Benchmark
+    public AnalyticsResponse getDailyAnalytics() {
+        return analyticsService.getDailyAnalytics();
+    }
+}
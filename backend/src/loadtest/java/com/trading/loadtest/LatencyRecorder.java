@@ -0,0 +1,82 @@
+package com.trading.loadtest;
+
+import com.trading.model.Trade;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Placement-to-persistence latency per trade
+ * Placement and persistence are recorded independently, because the persisted event can arrive
+ * before the placing call has returned the tradeId
+ */
+class LatencyRecorder {
+
+    private final Map<UUID, Long> placedAt = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> persistedAt = new ConcurrentHashMap<>();
+    private final AtomicLong failed = new AtomicLong();
+
+    void placed(UUID tradeId, long startNanos) {
+        placedAt.put(tradeId, startNanos);
+    }
+
+    void failed() {
+        failed.incrementAndGet();
+    }
+
+    void persisted(List<Trade> trades) {
+        long now = System.nanoTime();
+        for (Trade trade : trades) {
+            persistedAt.putIfAbsent(trade.getTradeId(), now);
+        }
+    }
+
+    long placedCount() {
+        return placedAt.size();
+    }
+
+    long persistedCount() {
+        return persistedAt.size();
+    }
+
+    long failedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Sorted latencies (nanos) of trades that were both placed and persisted during the run
+     */
+    long[] latencies() {
+        long[] latencies = new long[placedAt.size()];
+        int count = 0;
+        for (Map.Entry<UUID, Long> entry : placedAt.entrySet()) {
+            Long persisted = persistedAt.get(entry.getKey());
+            if (persisted != null) {
+                latencies[count++] = persisted - entry.getValue();
+            }
+        }
+        latencies = Arrays.copyOf(latencies, count);
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    long lastPersistedNanos() {
+        long last = 0;
+        for (long persisted : persistedAt.values()) {
+            last = Math.max(last, persisted);
+        }
+        return last;
+    }
+
+    static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
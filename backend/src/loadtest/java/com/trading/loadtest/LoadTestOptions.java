@@ -0,0 +1,79 @@
+package com.trading.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options of the load generator (--name=value)
+ *
+ * Synthetic order flow:
+ *   --rate=1000              base orders per second
+ *   --duration=60s           how long orders are generated
+ *   --burst-rate=5000        orders per second during bursts (0 disables bursts)
+ *   --burst-period=30s       time between burst starts (the first burst starts immediately, like a market open)
+ *   --burst-length=5s        length of each burst
+ *   --symbols=NIFTY:5,INFY:1 symbols with relative weights, or
+ *   --symbol-count=50        generated symbols SYM000.. with a Zipf distribution
+ *   --zipf-exponent=1.0      skew of the generated symbols
+ *   --seed=42                random seed, for repeatable runs
+ *
+ * Replay:
+ *   --replay=trades.csv      lines of offset_ms,symbol,side,quantity,price
+ *   --replay-speed=1.0       replay time scale (2.0 = twice as fast)
+ *
+ * Target and reporting:
+ *   --target=service         service (TradeService) or rest (POST /api/trade)
+ *   --max-in-flight=256      concurrent REST requests
+ *   --drain-timeout=60s      how long to wait for placed trades to be persisted
+ *   --app.*                  extra application properties, e.g. --app.trading.persistence.mode=write-behind
+ */
+class LoadTestOptions {
+
+    private final Map<String, String> values = new HashMap<>();
+    private final Map<String, String> appProperties = new HashMap<>();
+
+    LoadTestOptions(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (name.startsWith("app.")) {
+                appProperties.put(name.substring(4), value);
+            } else {
+                values.put(name, value);
+            }
+        }
+    }
+
+    String getString(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    int getInt(String name, int defaultValue) {
+        String value = values.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    double getDouble(String name, double defaultValue) {
+        String value = values.get(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    long getLong(String name, long defaultValue) {
+        String value = values.get(name);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+
+    Duration getDuration(String name, String defaultValue) {
+        return DurationStyle.detectAndParse(values.getOrDefault(name, defaultValue));
+    }
+
+    Map<String, String> getAppProperties() {
+        return appProperties;
+    }
+}
@@ -0,0 +1,198 @@
+package com.trading.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trading.TradingApplication;
+import com.trading.model.TradeEvent;
+import com.trading.model.TradeRequest;
+import com.trading.service.TradeService;
+import com.trading.service.TradesPersistedEvent;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator for the trade pipeline
+ *
+ * Starts Kafka, Ignite and PostgreSQL in-process (see LocalEnvironment), boots the backend against them,
+ * places generated or replayed orders at the requested rate and reports throughput and
+ * placement-to-persistence latency (see LoadTestOptions for arguments)
+ *
+ * Latency is measured from the time an order was due, not the time it was sent, so a stalled
+ * pipeline shows up in the percentiles instead of silently lowering the offered rate
+ */
+public class LoadTestRunner {
+
+    private final LoadTestOptions options;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private LoadTestRunner(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTestRunner(new LoadTestOptions(args)).run();
+        // Ignite and Kafka client threads may linger after shutdown
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        try (LocalEnvironment environment = LocalEnvironment.start()) {
+            List<String> applicationArgs = new ArrayList<>(environment.applicationArgs());
+            options.getAppProperties().forEach((name, value) -> applicationArgs.add("--" + name + "=" + value));
+
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(TradingApplication.class)
+                .listeners(this::onApplicationEvent)
+                .run(applicationArgs.toArray(new String[0]));
+            try {
+                awaitPartitionAssignment(context);
+                long start = System.nanoTime();
+                placeOrders(context, start);
+                long placedEnd = System.nanoTime();
+                awaitPersistence();
+                report(start, placedEnd);
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * Records persistence time of newly inserted trades once their transaction commits
+     */
+    private void onApplicationEvent(ApplicationEvent event) {
+        if (!(event instanceof PayloadApplicationEvent<?> payloadEvent)
+            || !(payloadEvent.getPayload() instanceof TradesPersistedEvent persisted)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recorder.persisted(persisted.getTrades());
+                }
+            });
+        } else {
+            recorder.persisted(persisted.getTrades());
+        }
+    }
+
+    private void awaitPartitionAssignment(ConfigurableApplicationContext context) throws InterruptedException {
+        KafkaListenerEndpointRegistry registry = context.getBean(KafkaListenerEndpointRegistry.class);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        for (MessageListenerContainer container : registry.getListenerContainers()) {
+            while (System.nanoTime() < deadline) {
+                Collection<?> assigned = container.getAssignedPartitions();
+                if (assigned != null && !assigned.isEmpty()) {
+                    break;
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    private void placeOrders(ConfigurableApplicationContext context, long start) throws Exception {
+        boolean rest = "rest".equalsIgnoreCase(options.getString("target", "service"));
+        TradeService tradeService = context.getBean(TradeService.class);
+        HttpClient httpClient = HttpClient.newHttpClient();
+        URI tradeUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/trade");
+        int maxInFlight = options.getInt("max-in-flight", 256);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        OrderSource source = OrderSource.fromOptions(options);
+        OrderSource.ScheduledOrder order;
+        while ((order = source.next()) != null) {
+            long due = start + order.dueNanos();
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            if (rest) {
+                inFlight.acquire();
+                placeOverRest(httpClient, tradeUri, order.request(), due)
+                    .whenComplete((ignored, ex) -> inFlight.release());
+            } else {
+                try {
+                    TradeEvent tradeEvent = tradeService.placeTrade(order.request());
+                    recorder.placed(tradeEvent.getTradeId(), due);
+                } catch (RuntimeException e) {
+                    recorder.failed();
+                }
+            }
+        }
+
+        // Wait for outstanding REST responses
+        inFlight.acquire(maxInFlight);
+    }
+
+    private CompletableFuture<Void> placeOverRest(HttpClient httpClient, URI tradeUri,
+                                                  TradeRequest tradeRequest, long due)
+            throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(tradeUri)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(tradeRequest)))
+            .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .thenAccept(response -> {
+                try {
+                    if (response.statusCode() / 100 != 2) {
+                        recorder.failed();
+                        return;
+                    }
+                    TradeEvent tradeEvent = objectMapper.readValue(response.body(), TradeEvent.class);
+                    recorder.placed(tradeEvent.getTradeId(), due);
+                } catch (Exception e) {
+                    recorder.failed();
+                }
+            })
+            .exceptionally(ex -> {
+                recorder.failed();
+                return null;
+            });
+    }
+
+    private void awaitPersistence() throws InterruptedException {
+        long deadline = System.nanoTime() + options.getDuration("drain-timeout", "60s").toNanos();
+        while (recorder.persistedCount() < recorder.placedCount() && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+    }
+
+    private void report(long start, long placedEnd) {
+        long[] latencies = recorder.latencies();
+        long lastPersisted = Math.max(recorder.lastPersistedNanos(), start + 1);
+        double placeSeconds = Math.max(placedEnd - start, 1) / 1e9;
+        double persistSeconds = (lastPersisted - start) / 1e9;
+
+        System.out.println();
+        System.out.println("=== Load test results ===");
+        System.out.printf("Orders placed:     %d (%d failed)%n", recorder.placedCount(), recorder.failedCount());
+        System.out.printf("Trades persisted:  %d%n", latencies.length);
+        System.out.printf("Offered rate:      %.0f orders/s%n", recorder.placedCount() / placeSeconds);
+        System.out.printf("Throughput:        %.0f trades/s (first placement to last persistence)%n",
+            latencies.length / persistSeconds);
+        System.out.printf("Latency p50:       %.3f ms%n", LatencyRecorder.percentile(latencies, 0.50) / 1e6);
+        System.out.printf("Latency p99:       %.3f ms%n", LatencyRecorder.percentile(latencies, 0.99) / 1e6);
+        System.out.printf("Latency p999:      %.3f ms%n", LatencyRecorder.percentile(latencies, 0.999) / 1e6);
+        System.out.printf("Latency max:       %.3f ms%n",
+            latencies.length > 0 ? latencies[latencies.length - 1] / 1e6 : 0.0);
+    }
+}
@@ -0,0 +1,125 @@
+package com.trading.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteSystemProperties;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.configuration.DataPageEvictionMode;
+import org.apache.ignite.configuration.DataRegionConfiguration;
+import org.apache.ignite.configuration.DataStorageConfiguration;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
+import org.apache.ignite.spi.discovery.tcp.ipfinder.vm.TcpDiscoveryVmIpFinder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * In-process stand-ins for the docker-compose services: a Kafka broker, a single Ignite server node
+ * and a PostgreSQL instance initialized with schema.sql
+ */
+class LocalEnvironment implements AutoCloseable {
+
+    private static final String IGNITE_DISCOVERY_ADDRESSES = "127.0.0.1:47500..47509";
+
+    private EmbeddedKafkaBroker kafka;
+    private EmbeddedPostgres postgres;
+    private Ignite ignite;
+    private Path igniteHome;
+
+    static LocalEnvironment start() throws Exception {
+        LocalEnvironment environment = new LocalEnvironment();
+        try {
+            environment.startKafka();
+            environment.startPostgres();
+            environment.startIgnite();
+        } catch (Exception e) {
+            environment.close();
+            throw e;
+        }
+        return environment;
+    }
+
+    private void startKafka() {
+        kafka = new EmbeddedKafkaBroker(1, false, 1);
+        kafka.afterPropertiesSet();
+    }
+
+    private void startPostgres() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+        }
+    }
+
+    private void startIgnite() throws Exception {
+        // Work directories go under a temporary IGNITE_HOME instead of the working directory;
+        // the property also covers the backend's client node, which runs in this JVM
+        igniteHome = Files.createTempDirectory("loadtest-ignite");
+        System.setProperty(IgniteSystemProperties.IGNITE_HOME, igniteHome.toString());
+
+        IgniteConfiguration cfg = new IgniteConfiguration();
+        cfg.setIgniteInstanceName("loadtest-server");
+        // Must match the backend client (PositionUpdateProcessor is shipped to this node)
+        cfg.setPeerClassLoadingEnabled(true);
+
+        TcpDiscoveryVmIpFinder ipFinder = new TcpDiscoveryVmIpFinder();
+        ipFinder.setAddresses(Collections.singletonList(IGNITE_DISCOVERY_ADDRESSES));
+        TcpDiscoverySpi discoverySpi = new TcpDiscoverySpi();
+        discoverySpi.setIpFinder(ipFinder);
+        discoverySpi.setLocalAddress("127.0.0.1");
+        cfg.setDiscoverySpi(discoverySpi);
+
+        // Same bounded region as ignite-config.xml (used by the recent_trade_ids cache)
+        DataRegionConfiguration dedupRegion = new DataRegionConfiguration()
+            .setName("dedup")
+            .setMaxSize(512L * 1024 * 1024)
+            .setPageEvictionMode(DataPageEvictionMode.RANDOM_2_LRU);
+        cfg.setDataStorageConfiguration(new DataStorageConfiguration().setDataRegionConfigurations(dedupRegion));
+
+        ignite = Ignition.start(cfg);
+    }
+
+    /**
+     * Command line arguments pointing the backend at the local services
+     */
+    List<String> applicationArgs() {
+        return List.of(
+            "--spring.kafka.bootstrap-servers=" + kafka.getBrokersAsString(),
+            // Orders may be placed before the consumer group has joined
+            "--spring.kafka.consumer.auto-offset-reset=earliest",
+            "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+            "--spring.datasource.username=postgres",
+            "--spring.datasource.password=postgres",
+            "--ignite.discovery-addresses=" + IGNITE_DISCOVERY_ADDRESSES,
+            "--server.port=0",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.com.trading=WARN",
+            "--logging.level.org.apache.kafka=WARN",
+            "--logging.level.org.apache.ignite=WARN"
+        );
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (ignite != null) {
+            ignite.close();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+        if (kafka != null) {
+            kafka.destroy();
+        }
+        if (igniteHome != null) {
+            FileSystemUtils.deleteRecursively(igniteHome);
+        }
+    }
+}
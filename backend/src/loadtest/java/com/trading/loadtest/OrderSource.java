@@ -0,0 +1,156 @@
+package com.trading.loadtest;
+
+import com.trading.model.TradeRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Sequence of orders with the time (relative to the start of the run) each should be placed at
+ */
+interface OrderSource {
+
+    /**
+     * Next order, or null when the run is over
+     */
+    ScheduledOrder next() throws IOException;
+
+    record ScheduledOrder(long dueNanos, TradeRequest request) {
+    }
+
+    static OrderSource fromOptions(LoadTestOptions options) throws IOException {
+        String replay = options.getString("replay", null);
+        if (replay != null) {
+            return new Replay(Path.of(replay), options.getDouble("replay-speed", 1.0));
+        }
+        return new Synthetic(options);
+    }
+
+    private static TradeRequest request(String symbol, String side, int quantity, double price) {
+        TradeRequest request = new TradeRequest();
+        request.setSymbol(symbol);
+        request.setSide(side);
+        request.setQuantity(quantity);
+        request.setPrice(price);
+        return request;
+    }
+
+    /**
+     * Generated orders at a base rate with periodic bursts and a weighted symbol distribution
+     */
+    class Synthetic implements OrderSource {
+
+        private final Random random;
+        private final String[] symbols;
+        private final double[] cumulativeWeights;
+        private final double[] prices;
+        private final double rate;
+        private final double burstRate;
+        private final long burstPeriodNanos;
+        private final long burstLengthNanos;
+        private final long durationNanos;
+        private long nextDueNanos;
+
+        Synthetic(LoadTestOptions options) {
+            random = new Random(options.getLong("seed", 42));
+            rate = options.getDouble("rate", 1000);
+            burstRate = options.getDouble("burst-rate", 0);
+            burstPeriodNanos = options.getDuration("burst-period", "30s").toNanos();
+            burstLengthNanos = options.getDuration("burst-length", "5s").toNanos();
+            durationNanos = options.getDuration("duration", "60s").toNanos();
+
+            List<String> names = new ArrayList<>();
+            List<Double> weights = new ArrayList<>();
+            String symbolSpec = options.getString("symbols", null);
+            if (symbolSpec != null) {
+                for (String entry : symbolSpec.split(",")) {
+                    String[] parts = entry.split(":");
+                    names.add(parts[0]);
+                    weights.add(parts.length > 1 ? Double.parseDouble(parts[1]) : 1.0);
+                }
+            } else {
+                int symbolCount = options.getInt("symbol-count", 50);
+                double exponent = options.getDouble("zipf-exponent", 1.0);
+                for (int rank = 1; rank <= symbolCount; rank++) {
+                    names.add(String.format("SYM%03d", rank - 1));
+                    weights.add(1.0 / Math.pow(rank, exponent));
+                }
+            }
+
+            symbols = names.toArray(new String[0]);
+            cumulativeWeights = new double[symbols.length];
+            double total = 0;
+            for (int i = 0; i < symbols.length; i++) {
+                total += weights.get(i);
+                cumulativeWeights[i] = total;
+            }
+            prices = new double[symbols.length];
+            for (int i = 0; i < symbols.length; i++) {
+                cumulativeWeights[i] /= total;
+                prices[i] = 100 + random.nextInt(25000);
+            }
+        }
+
+        @Override
+        public ScheduledOrder next() {
+            if (nextDueNanos >= durationNanos) {
+                return null;
+            }
+            long due = nextDueNanos;
+            boolean inBurst = burstRate > 0 && due % burstPeriodNanos < burstLengthNanos;
+            nextDueNanos += (long) (1_000_000_000L / (inBurst ? burstRate : rate));
+
+            int index = Arrays.binarySearch(cumulativeWeights, random.nextDouble());
+            int symbol = Math.min(index >= 0 ? index : -index - 1, symbols.length - 1);
+            // Small random walk so prices stay realistic for the symbol
+            prices[symbol] = Math.max(1, prices[symbol] * (1 + (random.nextDouble() - 0.5) * 0.002));
+
+            return new ScheduledOrder(due, request(
+                symbols[symbol],
+                random.nextBoolean() ? "BUY" : "SELL",
+                1 + random.nextInt(100),
+                Math.round(prices[symbol] * 100) / 100.0));
+        }
+    }
+
+    /**
+     * Recorded orders from a CSV file (offset_ms,symbol,side,quantity,price), replayed with their original timing
+     */
+    class Replay implements OrderSource {
+
+        private final BufferedReader reader;
+        private final double speed;
+
+        Replay(Path file, double speed) throws IOException {
+            this.reader = Files.newBufferedReader(file);
+            this.speed = speed;
+        }
+
+        @Override
+        public ScheduledOrder next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || line.startsWith("offset_ms")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                long offsetNanos = Duration.ofMillis(Long.parseLong(fields[0].trim())).toNanos();
+                return new ScheduledOrder((long) (offsetNanos / speed), request(
+                    fields[1].trim(),
+                    fields[2].trim(),
+                    Integer.parseInt(fields[3].trim()),
+                    Double.parseDouble(fields[4].trim())));
+            }
+            reader.close();
+            return null;
+        }
+    }
+}
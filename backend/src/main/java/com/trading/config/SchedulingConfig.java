@@ -0,0 +1,12 @@
+package com.trading.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled maintenance jobs (e.g. trades partition management)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
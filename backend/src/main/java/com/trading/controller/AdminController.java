@@ -0,0 +1,54 @@
+package com.trading.controller;
+
+import com.trading.kafka.TradeDltReplayService;
+import com.trading.model.PositionRebuildResult;
+import com.trading.service.PositionRebuildService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * REST controller for operational tasks
+ */
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "*")
+public class AdminController {
+    
+    private static final int MAX_REPLAY_LIMIT = 100000;
+    
+    @Autowired
+    private TradeDltReplayService tradeDltReplayService;
+    
+    @Autowired
+    private PositionRebuildService positionRebuildService;
+    
+    /**
+     * Replay dead-lettered trades into trade_orders
+     * Replays at most limit trades that were not replayed before
+     */
+    @PostMapping("/dlt/replay")
+    public ResponseEntity<Map<String, Integer>> replayDeadLetters(@RequestParam(defaultValue = "1000") int limit)
+            throws Exception {
+        if (limit <= 0 || limit > MAX_REPLAY_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        int replayed = tradeDltReplayService.replay(limit);
+        return ResponseEntity.ok(Map.of("replayed", replayed));
+    }
+    
+    /**
+     * Rebuild the Ignite positions from the trades stored in PostgreSQL
+     * Stops this instance's consumers meanwhile; 409 in write-behind mode
+     */
+    @PostMapping("/positions/rebuild")
+    public ResponseEntity<PositionRebuildResult> rebuildPositions() throws Exception {
+        if (!positionRebuildService.isRebuildAvailable()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok(positionRebuildService.rebuild());
+    }
+}
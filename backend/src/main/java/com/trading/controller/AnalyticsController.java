@@ -1,42 +1,140 @@
 package com.trading.controller;
 
-import com.trading.model.AnalyticsResponse;
-import com.trading.model.Trade;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trading.model.BarInterval;
+import com.trading.model.TradePage;
 import com.trading.service.AnalyticsService;
+import com.trading.service.DataVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 /**
  * REST controller for analytics operations
+ * Daily analytics, today's trades and bars carry an ETag that changes when trades are persisted;
+ * a matching If-None-Match is answered with 304 without querying PostgreSQL
  */
 @RestController
 @RequestMapping("/api/analytics")
 @CrossOrigin(origins = "*")
 public class AnalyticsController {
     
+    private static final int MAX_PAGE_SIZE = 1000;
+    
+    // Max buckets per symbol in one bars request (e.g. ~7 days of 1m bars)
+    private static final long MAX_BAR_BUCKETS = 10000;
+    
     @Autowired
     private AnalyticsService analyticsService;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private DataVersionService dataVersionService;
+    
+    @Autowired
+    private VersionedResponseCache responseCache;
+    
     /**
      * Get daily analytics per symbol
      * Returns total quantity and PnL for today
      */
     @GetMapping("/daily")
-    public ResponseEntity<AnalyticsResponse> getDailyAnalytics() {
-        AnalyticsResponse response = analyticsService.getDailyAnalytics();
-        return ResponseEntity.ok(response);
+    public ResponseEntity<byte[]> getDailyAnalytics(WebRequest request) throws JsonProcessingException {
+        // "Today" changes at midnight even without new trades
+        String today = LocalDate.now().toString();
+        String etag = dataVersionService.etag(dataVersionService.getTradesVersion(), today);
+        return responseCache.respond(request, "daily", etag, analyticsService::getDailyAnalytics);
     }
     
     /**
      * Get all trades for today
      */
     @GetMapping("/trades/today")
-    public ResponseEntity<List<Trade>> getTradesToday() {
-        List<Trade> trades = analyticsService.getTradesToday();
-        return ResponseEntity.ok(trades);
+    public ResponseEntity<byte[]> getTradesToday(WebRequest request) throws JsonProcessingException {
+        String today = LocalDate.now().toString();
+        String etag = dataVersionService.etag(dataVersionService.getTradesVersion(), today);
+        return responseCache.respond(request, "trades/today", etag, analyticsService::getTradesToday);
+    }
+    
+    /**
+     * Get one page of today's trades, newest first
+     * Optional symbol/side filters; pass nextCursor from the previous page to continue
+     */
+    @GetMapping("/trades/today/page")
+    public ResponseEntity<TradePage> getTradesTodayPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String symbol,
+            @RequestParam(required = false) String side) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        try {
+            TradePage page = analyticsService.getTradesTodayPage(cursor, pageSize, symbol, side);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            // Malformed cursor
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Stream all of today's trades as newline-delimited JSON, newest first
+     * Rows are written as they are read from the database, so memory stays bounded
+     */
+    @GetMapping(value = "/trades/today/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTradesToday(
+            @RequestParam(required = false) String symbol,
+            @RequestParam(required = false) String side) {
+        StreamingResponseBody body = out -> analyticsService.streamTradesToday(symbol, side, trade -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(trade));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+    
+    /**
+     * Get OHLCV bars (open/high/low/close, volume, VWAP, trade count) per symbol
+     * interval is 1m, 1h or 1d; from/to are ISO local date-times, e.g. 2024-01-15T09:15:00
+     */
+    @GetMapping("/bars")
+    public ResponseEntity<byte[]> getBars(
+            @RequestParam(defaultValue = "1m") String interval,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String symbol,
+            WebRequest request) throws JsonProcessingException {
+        BarInterval barInterval;
+        try {
+            barInterval = BarInterval.fromCode(interval);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!from.isBefore(to)
+            || Duration.between(from, to).dividedBy(barInterval.getDuration()) > MAX_BAR_BUCKETS) {
+            // Use a coarser interval for long ranges
+            return ResponseEntity.badRequest().build();
+        }
+        long version = symbol != null
+            ? dataVersionService.getTradesVersion(symbol)
+            : dataVersionService.getTradesVersion();
+        String etag = dataVersionService.etag(version, null);
+        String key = "bars:" + barInterval.getCode() + ":" + from + ":" + to + ":" + symbol;
+        return responseCache.respond(request, key, etag, () -> analyticsService.getBars(barInterval, from, to, symbol));
     }
 }
-
@@ -1,16 +1,19 @@
 package com.trading.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.trading.ignite.PositionService;
-import com.trading.model.Position;
+import com.trading.model.PositionSnapshot;
+import com.trading.service.DataVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.Map;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * REST controller for position operations
- * Returns real-time position data from Ignite
+ * Returns real-time position data from Ignite, including the mark-to-market fields
+ * (avgCost, realizedPnl, unrealizedPnl, markPrice) kept current by the market_prices feed
+ * Responses carry an ETag; a matching If-None-Match is answered with 304 without reading Ignite
  */
 @RestController
 @RequestMapping("/api/positions")
@@ -20,23 +23,40 @@ public class PositionController {
     @Autowired
     private PositionService positionService;
     
+    @Autowired
+    private DataVersionService dataVersionService;
+    
+    @Autowired
+    private VersionedResponseCache responseCache;
+    
     /**
      * Get all positions from Ignite
      * Returns real-time position data
      */
     @GetMapping
-    public ResponseEntity<Map<String, Position>> getAllPositions() {
-        Map<String, Position> positions = positionService.getAllPositions();
-        return ResponseEntity.ok(positions);
+    public ResponseEntity<byte[]> getAllPositions(WebRequest request) throws JsonProcessingException {
+        String etag = dataVersionService.etag(dataVersionService.getPositionsVersion(), null);
+        return responseCache.respond(request, "positions", etag, positionService::getAllPositions);
+    }
+    
+    /**
+     * Get a versioned snapshot of all positions
+     * Pass the version from the previous response to get a cheap "unchanged" answer
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<PositionSnapshot> getSnapshot(@RequestParam(required = false) Long sinceVersion) {
+        PositionSnapshot snapshot = positionService.getSnapshot(sinceVersion);
+        return ResponseEntity.ok(snapshot);
     }
     
     /**
      * Get position for a specific symbol
      */
     @GetMapping("/{symbol}")
-    public ResponseEntity<Position> getPosition(@PathVariable String symbol) {
-        Position position = positionService.getPosition(symbol);
-        return ResponseEntity.ok(position);
+    public ResponseEntity<byte[]> getPosition(@PathVariable String symbol, WebRequest request)
+            throws JsonProcessingException {
+        String etag = dataVersionService.etag(dataVersionService.getPositionVersion(symbol), null);
+        return responseCache.respond(request, "positions:" + symbol, etag, () -> positionService.getPosition(symbol));
     }
 }
 
@@ -0,0 +1,30 @@
+package com.trading.controller;
+
+import com.trading.service.UpdateStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST controller for push-based dashboard updates
+ * Streams position and trade changes as Server-Sent Events instead of polling
+ */
+@RestController
+@RequestMapping("/api/stream")
+@CrossOrigin(origins = "*")
+public class StreamController {
+    
+    @Autowired
+    private UpdateStreamService updateStreamService;
+    
+    /**
+     * Subscribe to updates
+     * Events: "snapshot" (all positions), "positions" (changed positions),
+     * "trades" (newly persisted trades), "resync" (client fell behind and should reload)
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return updateStreamService.connect();
+    }
+}
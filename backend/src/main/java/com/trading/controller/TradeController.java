@@ -1,14 +1,23 @@
 package com.trading.controller;
 
+import com.trading.kafka.ProducerSaturatedException;
+import com.trading.model.BatchTradeResult;
 import com.trading.model.TradeEvent;
 import com.trading.model.TradeRequest;
 import com.trading.service.TradeService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
 /**
  * REST controller for trade operations
  */
@@ -20,14 +29,64 @@ public class TradeController {
     @Autowired
     private TradeService tradeService;
     
+    @Value("${trading.trade.batch-max-size}")
+    private int batchMaxSize;
+    
+    @Value("${trading.trade.admission.retry-after}")
+    private Duration retryAfter;
+    
     /**
      * Place a trade order
      * Publishes trade event to Kafka for async processing
+     * By default returns as soon as the trade is handed to the producer (fire-and-forget);
+     * with waitForAck=true only after Kafka acknowledged it (503 if it failed, 504 if not acknowledged in time)
+     * 429 with Retry-After when too many sends are in flight
      */
     @PostMapping
-    public ResponseEntity<TradeEvent> placeTrade(@Valid @RequestBody TradeRequest request) {
-        TradeEvent tradeEvent = tradeService.placeTrade(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(tradeEvent);
+    public ResponseEntity<TradeEvent> placeTrade(@Valid @RequestBody TradeRequest request,
+                                                 @RequestParam(defaultValue = "false") boolean waitForAck)
+            throws InterruptedException {
+        try {
+            TradeEvent tradeEvent = tradeService.placeTrade(request, waitForAck);
+            return ResponseEntity.status(HttpStatus.CREATED).body(tradeEvent);
+        } catch (ProducerSaturatedException e) {
+            return tooManyRequests();
+        } catch (ExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds())
+                .build();
+        } catch (TimeoutException e) {
+            // The trade may still be published; do not ask the client to retry it blindly
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        }
+    }
+    
+    /**
+     * Place a basket of trade orders in one request
+     * Orders are validated individually; returns per-order results after all sends are acknowledged
+     * 429 with Retry-After (and nothing published) when the basket does not fit in the in-flight limit
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchTradeResult>> placeTrades(@RequestBody List<TradeRequest> requests) {
+        if (requests.isEmpty() || requests.size() > batchMaxSize) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            List<BatchTradeResult> results = tradeService.placeTrades(requests);
+            return ResponseEntity.ok(results);
+        } catch (ProducerSaturatedException e) {
+            return tooManyRequests();
+        }
+    }
+    
+    private <T> ResponseEntity<T> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds())
+            .build();
+    }
+    
+    private String retryAfterSeconds() {
+        // Retry-After is in whole seconds
+        return Long.toString(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
     }
 }
-
@@ -0,0 +1,80 @@
+package com.trading.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET support for versioned responses (see DataVersionService)
+ * Answers a matching If-None-Match with 304 before any data is read, and keeps the serialized body
+ * of the latest version per request key (LRU-bounded), so repeated polls of unchanged data are
+ * served without touching Ignite or PostgreSQL
+ */
+@Component
+public class VersionedResponseCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${trading.http-cache.max-entries}")
+    private int maxEntries;
+
+    @Value("${trading.http-cache.max-body-bytes}")
+    private int maxBodyBytes;
+
+    private final Map<String, CachedBody> bodies = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedBody> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    /**
+     * Respond with body (serialized at most once per etag) or 304 if the client already has etag
+     * Clients must revalidate every time (Cache-Control: no-cache)
+     */
+    public ResponseEntity<byte[]> respond(WebRequest request, String key, String etag, Supplier<?> body)
+            throws JsonProcessingException {
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .build();
+        }
+
+        CachedBody cached;
+        synchronized (bodies) {
+            cached = bodies.get(key);
+        }
+        byte[] bytes;
+        if (cached != null && cached.etag().equals(etag)) {
+            bytes = cached.bytes();
+        } else {
+            bytes = objectMapper.writeValueAsBytes(body.get());
+            if (bytes.length <= maxBodyBytes) {
+                synchronized (bodies) {
+                    bodies.put(key, new CachedBody(etag, bytes));
+                }
+            }
+        }
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(bytes);
+    }
+
+    private record CachedBody(String etag, byte[] bytes) {
+    }
+}
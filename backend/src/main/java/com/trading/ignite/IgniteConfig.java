@@ -2,51 +2,75 @@ package com.trading.ignite;
 
 import org.apache.ignite.Ignite;
 import org.apache.ignite.Ignition;
+import org.apache.ignite.client.IgniteClient;
+import org.apache.ignite.configuration.ClientConfiguration;
 import org.apache.ignite.configuration.IgniteConfiguration;
 import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
 import org.apache.ignite.spi.discovery.tcp.ipfinder.vm.TcpDiscoveryVmIpFinder;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.Collections;
+import java.util.Arrays;
 
 /**
  * Ignite client configuration
  * Connects to Ignite cluster for real-time position tracking
- * Uses client mode to connect to remote Ignite cluster
+ * ignite.client-mode selects a thick client node (joins the topology through discovery)
+ * or the thin client (plain TCP connections to ignite.address, no topology membership)
  */
 @Configuration
 public class IgniteConfig {
     
+    // Comma-separated host:port list of thin client endpoints
     @Value("${ignite.address}")
     private String igniteAddress;
     
+    // Comma-separated host:port ranges of the server nodes' discovery SPI
+    @Value("${ignite.discovery-addresses}")
+    private String discoveryAddresses;
+    
     /**
      * Creates Ignite client connection
      * Client mode connects to remote Ignite cluster without joining as a node
      */
     @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "ignite.client-mode", havingValue = "thick", matchIfMissing = true)
     public Ignite ignite() {
         IgniteConfiguration cfg = new IgniteConfiguration();
         
         // Set client mode - this node won't store data, just connect to cluster
         cfg.setClientMode(true);
         
-        // Configure discovery to connect to Ignite server
-        // Parse address (format: host:port) - extract hostname for discovery
-        String[] parts = igniteAddress.split(":");
-        String host = parts.length > 0 ? parts[0] : "ignite";
+        // Entry processors (e.g. PositionUpdateProcessor) are shipped to the server nodes
+        // Must match peerClassLoadingEnabled in ignite-config.xml
+        cfg.setPeerClassLoadingEnabled(true);
         
+        // Configure discovery to connect to Ignite server
         TcpDiscoverySpi discoverySpi = new TcpDiscoverySpi();
         TcpDiscoveryVmIpFinder ipFinder = new TcpDiscoveryVmIpFinder();
-        // Use standard Ignite discovery port range (47500-47509)
+        // Standard Ignite discovery port range (47500-47509)
         // In Docker, use the service name 'ignite' for discovery
-        ipFinder.setAddresses(Collections.singletonList("ignite:47500..47509"));
+        ipFinder.setAddresses(Arrays.asList(discoveryAddresses.split(",")));
         discoverySpi.setIpFinder(ipFinder);
         cfg.setDiscoverySpi(discoverySpi);
         
         return Ignition.start(cfg);
     }
+    
+    /**
+     * Creates Ignite thin client connection
+     * Starts in milliseconds with a small footprint and does not take part in topology changes.
+     * With several comma-separated addresses and partition awareness, key requests go directly
+     * to the node that owns the key.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "ignite.client-mode", havingValue = "thin")
+    public IgniteClient igniteClient() {
+        ClientConfiguration cfg = new ClientConfiguration()
+            .setAddresses(igniteAddress.split(","))
+            .setPartitionAwarenessEnabled(true);
+        return Ignition.startClient(cfg);
+    }
 }
-
@@ -0,0 +1,43 @@
+package com.trading.ignite;
+
+import org.apache.ignite.binary.BinaryObject;
+import org.apache.ignite.cache.CacheEntryProcessor;
+
+import javax.cache.processor.MutableEntry;
+
+/**
+ * Entry processor that marks a position to a new market price
+ * Only the mark price and unrealized PnL change; symbols without a position are left absent,
+ * they pick up a mark with the first tick after their first trade
+ */
+public class MarkToMarketProcessor implements CacheEntryProcessor<String, BinaryObject, Void> {
+    private static final long serialVersionUID = 1L;
+
+    private final long markPriceScaled;
+
+    public MarkToMarketProcessor(long markPriceScaled) {
+        this.markPriceScaled = markPriceScaled;
+    }
+
+    @Override
+    public Void process(MutableEntry<String, BinaryObject> entry, Object... args) {
+        if (entry.exists()) {
+            entry.setValue(mark(entry.getValue(), markPriceScaled));
+        }
+        return null;
+    }
+
+    long getMarkPriceScaled() {
+        return markPriceScaled;
+    }
+
+    /**
+     * Position current marked to the price
+     * Shared with the thin client path, which applies it with compare-and-set instead of invoke
+     */
+    static BinaryObject mark(BinaryObject current, long markPriceScaled) {
+        PositionBook book = PositionBook.read(current);
+        book.mark(markPriceScaled);
+        return book.write(current, null);
+    }
+}
@@ -0,0 +1,71 @@
+package com.trading.ignite;
+
+import com.trading.model.PriceTick;
+import jakarta.annotation.PostConstruct;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.apache.ignite.cache.query.ScanQuery;
+import org.apache.ignite.client.ClientCache;
+import org.apache.ignite.client.IgniteClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.cache.Cache;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Last market price per symbol, shared by all backend instances in the market_prices cache
+ */
+@Component
+public class MarketPriceCache {
+
+    private static final String CACHE_NAME = "market_prices";
+
+    // Exactly one of these exists, depending on ignite.client-mode
+    @Autowired(required = false)
+    private Ignite ignite;
+
+    @Autowired(required = false)
+    private IgniteClient igniteClient;
+
+    private IgniteCache<String, PriceTick> prices;
+    private ClientCache<String, PriceTick> pricesThin;
+
+    @PostConstruct
+    public void init() {
+        if (igniteClient != null) {
+            pricesThin = igniteClient.getOrCreateCache(CACHE_NAME);
+        } else {
+            prices = ignite.getOrCreateCache(CACHE_NAME);
+        }
+    }
+
+    /**
+     * Store the latest tick of each symbol
+     */
+    public void putAll(Map<String, PriceTick> ticks) {
+        if (pricesThin != null) {
+            pricesThin.putAll(ticks);
+        } else {
+            prices.putAll(ticks);
+        }
+    }
+
+    /**
+     * Last tick of every symbol
+     */
+    public Map<String, PriceTick> getAll() {
+        Map<String, PriceTick> ticks = new HashMap<>();
+        ScanQuery<String, PriceTick> query = new ScanQuery<>();
+        try (QueryCursor<Cache.Entry<String, PriceTick>> cursor = pricesThin != null
+                ? pricesThin.query(query)
+                : prices.query(query)) {
+            for (Cache.Entry<String, PriceTick> entry : cursor) {
+                ticks.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return ticks;
+    }
+}
@@ -0,0 +1,188 @@
+package com.trading.ignite;
+
+import org.apache.ignite.IgniteBinary;
+import org.apache.ignite.binary.BinaryObject;
+import org.apache.ignite.binary.BinaryObjectBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static com.trading.ignite.PositionUpdateProcessor.PNL_SCALE;
+
+/**
+ * Average-cost accounting for one position, in fixed-point units (PositionUpdateProcessor.PNL_SCALE)
+ *
+ * The open holding is seen from the trader's side (BUY adds), so it is -netQuantity.
+ * costBasis is what the open holding cost (negative for a short). A fill in the direction of the holding
+ * adds to the cost basis; a fill against it closes part of the holding at its average cost, books the
+ * difference as realized PnL and opens a new holding with any excess quantity.
+ * Cash flow (pnl) = realized - costBasis at all times, so realized + unrealized = pnl + holding * mark.
+ *
+ * Read from and written back to the binary Position, so it runs on server nodes without the model classes
+ */
+final class PositionBook {
+
+    static final String NET_QUANTITY_FIELD = "netQuantity";
+    static final String PNL_FIELD = "pnl";
+    static final String PNL_SCALED_FIELD = "pnlScaled";
+    static final String COST_BASIS_SCALED_FIELD = "costBasisScaled";
+    static final String REALIZED_PNL_SCALED_FIELD = "realizedPnlScaled";
+    static final String AVG_COST_FIELD = "avgCost";
+    static final String REALIZED_PNL_FIELD = "realizedPnl";
+    static final String UNREALIZED_PNL_FIELD = "unrealizedPnl";
+    static final String MARK_PRICE_FIELD = "markPrice";
+
+    private long holding;
+    private long pnlScaled;
+    private long costBasisScaled;
+    private long realizedPnlScaled;
+    private boolean marked;
+    private long markPriceScaled;
+
+    private PositionBook() {
+    }
+
+    /**
+     * Book of a position known only by its totals (entries written before cost basis was tracked)
+     * A flat position has realized its whole cash flow; for an open one the trade sequence is unknown,
+     * so the whole cash flow is taken as the cost basis of the open holding
+     */
+    static PositionBook ofTotals(long netQuantity, long pnlScaled) {
+        return netQuantity == 0
+            ? of(netQuantity, pnlScaled, 0, pnlScaled)
+            : of(netQuantity, pnlScaled, Math.negateExact(pnlScaled), 0);
+    }
+
+    static PositionBook of(long netQuantity, long pnlScaled, long costBasisScaled, long realizedPnlScaled) {
+        PositionBook book = new PositionBook();
+        book.holding = -netQuantity;
+        book.pnlScaled = pnlScaled;
+        book.costBasisScaled = costBasisScaled;
+        book.realizedPnlScaled = realizedPnlScaled;
+        return book;
+    }
+
+    /**
+     * Book of the current position (null for a new symbol)
+     * Entries written before pnlScaled or costBasisScaled existed are converted on the way
+     */
+    static PositionBook read(BinaryObject current) {
+        if (current == null) {
+            return new PositionBook();
+        }
+
+        Integer netQuantity = current.field(NET_QUANTITY_FIELD);
+        long pnlScaled;
+        if (current.hasField(PNL_SCALED_FIELD)) {
+            Long value = current.field(PNL_SCALED_FIELD);
+            pnlScaled = value != null ? value : 0;
+        } else {
+            Double pnl = current.field(PNL_FIELD);
+            pnlScaled = pnl != null ? Math.round(pnl * PNL_SCALE) : 0;
+        }
+
+        PositionBook book = ofTotals(netQuantity != null ? netQuantity : 0, pnlScaled);
+        if (current.hasField(COST_BASIS_SCALED_FIELD)) {
+            Long costBasis = current.field(COST_BASIS_SCALED_FIELD);
+            Long realized = current.field(REALIZED_PNL_SCALED_FIELD);
+            book.costBasisScaled = costBasis != null ? costBasis : 0;
+            book.realizedPnlScaled = realized != null ? realized : 0;
+            if (book.holding == 0 && book.costBasisScaled != 0) {
+                // Cost left on a flat position (written by an earlier rebuild) belongs to realized PnL
+                book.realizedPnlScaled = Math.subtractExact(book.realizedPnlScaled, book.costBasisScaled);
+                book.costBasisScaled = 0;
+            }
+        }
+        Double markPrice = current.field(MARK_PRICE_FIELD);
+        if (markPrice != null) {
+            book.mark(Math.round(markPrice * PNL_SCALE));
+        }
+        return book;
+    }
+
+    /**
+     * Apply one fill (signed quantity: BUY negative, SELL positive, like Position.netQuantity)
+     *
+     * @throws ArithmeticException if the position overflows the fixed-point range
+     */
+    void fill(long signedQuantity, long priceScaled) {
+        long quantity = -signedQuantity;
+        pnlScaled = Math.addExact(pnlScaled, Math.multiplyExact(signedQuantity, priceScaled));
+
+        if (holding != 0 && Long.signum(quantity) != Long.signum(holding)) {
+            long closing = Math.abs(quantity) >= Math.abs(holding) ? -holding : quantity;
+            long closedCost = proportion(costBasisScaled, Math.abs(closing), Math.abs(holding));
+            realizedPnlScaled = Math.addExact(realizedPnlScaled,
+                Math.negateExact(Math.addExact(Math.multiplyExact(closing, priceScaled), closedCost)));
+            costBasisScaled -= closedCost;
+            holding += closing;
+            quantity -= closing;
+        }
+
+        holding = Math.addExact(holding, quantity);
+        costBasisScaled = Math.addExact(costBasisScaled, Math.multiplyExact(quantity, priceScaled));
+    }
+
+    long getCostBasisScaled() {
+        return costBasisScaled;
+    }
+
+    long getRealizedPnlScaled() {
+        return realizedPnlScaled;
+    }
+
+    void mark(long priceScaled) {
+        marked = true;
+        markPriceScaled = priceScaled;
+    }
+
+    /**
+     * Write the book into current (or a new Position when current is null)
+     */
+    BinaryObject write(BinaryObject current, IgniteBinary binary) {
+        BinaryObjectBuilder builder = current != null
+            ? current.toBuilder()
+            : binary.builder(PositionUpdateProcessor.POSITION_TYPE);
+        builder.setField(NET_QUANTITY_FIELD, Math.toIntExact(-holding), Integer.class);
+        builder.setField(PNL_FIELD, unscale(pnlScaled), Double.class);
+        builder.setField(PNL_SCALED_FIELD, pnlScaled, Long.class);
+        builder.setField(COST_BASIS_SCALED_FIELD, costBasisScaled, Long.class);
+        builder.setField(REALIZED_PNL_SCALED_FIELD, realizedPnlScaled, Long.class);
+        builder.setField(AVG_COST_FIELD, holding != 0 ? (double) costBasisScaled / holding / PNL_SCALE : 0.0,
+            Double.class);
+        builder.setField(REALIZED_PNL_FIELD, unscale(realizedPnlScaled), Double.class);
+        if (marked) {
+            long unrealizedPnlScaled = Math.subtractExact(Math.multiplyExact(holding, markPriceScaled), costBasisScaled);
+            builder.setField(MARK_PRICE_FIELD, unscale(markPriceScaled), Double.class);
+            builder.setField(UNREALIZED_PNL_FIELD, unscale(unrealizedPnlScaled), Double.class);
+        }
+        return builder.build();
+    }
+
+    private static double unscale(long scaled) {
+        return (double) scaled / PNL_SCALE;
+    }
+
+    /**
+     * amount * part / whole, rounded half away from zero (part <= whole, so the result fits)
+     */
+    private static long proportion(long amount, long part, long whole) {
+        if (part == whole) {
+            return amount;
+        }
+        long product;
+        try {
+            product = Math.multiplyExact(amount, part);
+        } catch (ArithmeticException e) {
+            return BigDecimal.valueOf(amount).multiply(BigDecimal.valueOf(part))
+                .divide(BigDecimal.valueOf(whole), 0, RoundingMode.HALF_UP)
+                .longValueExact();
+        }
+        long quotient = product / whole;
+        long remainder = product % whole;
+        if (Math.abs(remainder) * 2 >= whole) {
+            quotient += Long.signum(product);
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,140 @@
+package com.trading.ignite;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process accumulator of position changes for one consumer thread
+ *
+ * Symbols are interned to int ids (shared by all engines) and fills are appended to reusable
+ * per-symbol primitive arrays (prices as fixed-point longs scaled by PositionUpdateProcessor.PNL_SCALE),
+ * so applying a trade allocates nothing once the arrays have grown to the batch size.
+ * The fills are drained into one processor per touched symbol and applied to the Ignite positions cache
+ * once per batch, which stays the shared source of truth for all instances. Fills keep their order
+ * because average-cost accounting depends on it (see PositionBook).
+ *
+ * Not thread-safe: PositionService keeps one engine per consumer thread.
+ */
+class PositionEngine {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int INITIAL_FILL_CAPACITY = 8;
+
+    private final SymbolTable symbols;
+
+    private int[][] fillQuantities = new int[INITIAL_CAPACITY][];
+    private long[][] fillPrices = new long[INITIAL_CAPACITY][];
+    private int[] fillCounts = new int[INITIAL_CAPACITY];
+    private int[] touchedIds = new int[INITIAL_CAPACITY];
+    private int touchedCount;
+
+    PositionEngine(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Add one trade (signed quantity: BUY negative, SELL positive)
+     *
+     * @throws ArithmeticException if the trade value overflows the fixed-point range
+     */
+    void apply(String symbol, int signedQuantity, double price) {
+        int id = symbols.idOf(symbol);
+        if (id >= fillCounts.length) {
+            grow(id);
+        }
+        long scaledPrice = Math.round(price * PositionUpdateProcessor.PNL_SCALE);
+        // Reject a trade whose value cannot be represented here rather than failing the whole batch in Ignite
+        Math.multiplyExact(signedQuantity, scaledPrice);
+
+        int count = fillCounts[id];
+        if (count == 0) {
+            touchedIds[touchedCount++] = id;
+            if (fillQuantities[id] == null) {
+                fillQuantities[id] = new int[INITIAL_FILL_CAPACITY];
+                fillPrices[id] = new long[INITIAL_FILL_CAPACITY];
+            }
+        } else if (count == fillQuantities[id].length) {
+            fillQuantities[id] = Arrays.copyOf(fillQuantities[id], count * 2);
+            fillPrices[id] = Arrays.copyOf(fillPrices[id], count * 2);
+        }
+        fillQuantities[id][count] = signedQuantity;
+        fillPrices[id][count] = scaledPrice;
+        fillCounts[id] = count + 1;
+    }
+
+    boolean isEmpty() {
+        return touchedCount == 0;
+    }
+
+    /**
+     * Take the accumulated fills as one entry processor per touched symbol and reset the engine
+     */
+    Map<String, PositionUpdateProcessor> drain() {
+        Map<String, PositionUpdateProcessor> processors = new HashMap<>(touchedCount * 2);
+        for (int i = 0; i < touchedCount; i++) {
+            int id = touchedIds[i];
+            int count = fillCounts[id];
+            processors.put(symbols.nameOf(id), new PositionUpdateProcessor(
+                Arrays.copyOf(fillQuantities[id], count), Arrays.copyOf(fillPrices[id], count)));
+        }
+        clear();
+        return processors;
+    }
+
+    /**
+     * Drop the accumulated fills (e.g. after a failed batch that will be processed again)
+     */
+    void clear() {
+        for (int i = 0; i < touchedCount; i++) {
+            fillCounts[touchedIds[i]] = 0;
+        }
+        touchedCount = 0;
+    }
+
+    private void grow(int id) {
+        int capacity = Math.max(fillCounts.length * 2, id + 1);
+        fillQuantities = Arrays.copyOf(fillQuantities, capacity);
+        fillPrices = Arrays.copyOf(fillPrices, capacity);
+        fillCounts = Arrays.copyOf(fillCounts, capacity);
+        touchedIds = Arrays.copyOf(touchedIds, capacity);
+    }
+
+    /**
+     * Symbol to int id mapping shared by all engines
+     * Ids are dense and never reused; only the first trade of a new symbol allocates
+     */
+    static class SymbolTable {
+
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        private volatile String[] names = new String[INITIAL_CAPACITY];
+        private int size;
+
+        int idOf(String symbol) {
+            Integer id = ids.get(symbol);
+            return id != null ? id : register(symbol);
+        }
+
+        String nameOf(int id) {
+            return names[id];
+        }
+
+        private synchronized int register(String symbol) {
+            Integer existing = ids.get(symbol);
+            if (existing != null) {
+                return existing;
+            }
+            int id = size++;
+            String[] current = names;
+            if (id >= current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[id] = symbol;
+            // Publish the name before the id becomes visible to other threads
+            names = current;
+            ids.put(symbol, id);
+            return id;
+        }
+    }
+}
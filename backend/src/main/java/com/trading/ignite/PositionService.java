@@ -1,78 +1,214 @@
 package com.trading.ignite;
 
+import com.trading.metrics.TradeMetrics;
 import com.trading.model.Position;
-import org.apache.ignite.Ignite;
-import org.apache.ignite.IgniteCache;
+import com.trading.model.PositionSnapshot;
+import com.trading.model.PositionTotal;
+import com.trading.model.TradeEvent;
+import com.trading.repository.PositionReplay;
+import org.apache.ignite.cache.query.QueryCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.cache.Cache;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
 /**
  * Service for managing positions in Ignite cache
  * Handles real-time position updates and retrieval
+ * The cache is reached through a thick client node or the thin client (see PositionStore)
  */
 @Service
 public class PositionService {
     
-    private static final String CACHE_NAME = "positions";
+    @Autowired
+    private PositionStore positionStore;
     
     @Autowired
-    private Ignite ignite;
+    private TradeMetrics tradeMetrics;
     
-    /**
-     * Get Ignite cache for positions
-     */
-    private IgniteCache<String, Position> getCache() {
-        return ignite.getOrCreateCache(CACHE_NAME);
-    }
+    @Value("${trading.positions.scan-page-size}")
+    private int scanPageSize;
+    
+    private volatile PositionSnapshot lastSnapshot;
+    
+    // Symbol ids are shared, accumulation arrays are per consumer thread
+    private final PositionEngine.SymbolTable symbols = new PositionEngine.SymbolTable();
+    private final ThreadLocal<PositionEngine> engines = ThreadLocal.withInitial(() -> new PositionEngine(symbols));
     
     /**
      * Get current position for a symbol
      */
     public Position getPosition(String symbol) {
-        IgniteCache<String, Position> cache = getCache();
-        Position position = cache.get(symbol);
-        return position != null ? position : new Position(0, 0.0);
+        Position position = positionStore.get(symbol);
+        return position != null ? position : new Position(0, 0.0, 0.0, 0.0, null, null);
     }
     
     /**
      * Update position based on trade
      * BUY: decreases netQuantity, decreases PnL (negative)
      * SELL: increases netQuantity, increases PnL (positive)
+     * The update is applied atomically for the symbol
      */
-    public void updatePosition(String symbol, String side, Integer quantity, Double price) {
-        IgniteCache<String, Position> cache = getCache();
-        
-        // Get current position or create new one
-        Position currentPosition = getPosition(symbol);
+    public void updatePosition(String symbol, String side, int quantity, double price) {
+        PositionEngine engine = engines.get();
+        engine.apply(symbol, signedQuantity(side, quantity), price);
+        Map<String, PositionUpdateProcessor> processors = engine.drain();
+        long start = System.nanoTime();
+        positionStore.apply(processors);
+        positionStore.incrementVersion();
+        tradeMetrics.recordIgniteUpdate(System.nanoTime() - start);
+    }
+    
+    /**
+     * Update positions for a batch of trades
+     * Trades are summed per symbol in this thread's PositionEngine (no allocation per trade)
+     * and the totals are applied in one call to the cache
+     *
+     * @throws PositionUpdateException if only some symbols were updated
+     */
+    public void updatePositions(List<TradeEvent> tradeEvents) {
+        if (tradeEvents.isEmpty()) {
+            return;
+        }
         
-        int newNetQuantity;
-        double newPnl;
+        PositionEngine engine = engines.get();
+        Map<String, PositionUpdateProcessor> processors;
+        try {
+            for (int i = 0; i < tradeEvents.size(); i++) {
+                TradeEvent trade = tradeEvents.get(i);
+                engine.apply(trade.getSymbol(), signedQuantity(trade.getSide(), trade.getQuantity()), trade.getPrice());
+            }
+            processors = engine.drain();
+        } catch (RuntimeException e) {
+            // Nothing was applied yet; the batch is processed again from scratch
+            engine.clear();
+            throw e;
+        }
         
-        if ("BUY".equalsIgnoreCase(side)) {
-            // BUY: negative impact on quantity and PnL
-            newNetQuantity = currentPosition.getNetQuantity() - quantity;
-            newPnl = currentPosition.getPnl() - (quantity * price);
-        } else {
-            // SELL: positive impact on quantity and PnL
-            newNetQuantity = currentPosition.getNetQuantity() + quantity;
-            newPnl = currentPosition.getPnl() + (quantity * price);
+        long start = System.nanoTime();
+        positionStore.apply(processors);
+        positionStore.incrementVersion();
+        tradeMetrics.recordIgniteUpdate(System.nanoTime() - start);
+    }
+    
+    /**
+     * Mark the positions of the given symbols to their latest prices
+     * Only these symbols are touched: each one is re-valued on its primary node from its stored
+     * cost basis, so the cost of a tick does not depend on the number of positions
+     */
+    public void markToMarket(Map<String, Double> prices) {
+        if (prices.isEmpty()) {
+            return;
         }
         
-        Position updatedPosition = new Position(newNetQuantity, newPnl);
-        cache.put(symbol, updatedPosition);
+        Map<String, MarkToMarketProcessor> marks = new HashMap<>(prices.size() * 2);
+        for (Map.Entry<String, Double> price : prices.entrySet()) {
+            marks.put(price.getKey(),
+                new MarkToMarketProcessor(Math.round(price.getValue() * PositionUpdateProcessor.PNL_SCALE)));
+        }
+        long start = System.nanoTime();
+        positionStore.mark(marks);
+        positionStore.incrementVersion();
+        tradeMetrics.recordIgniteUpdate(System.nanoTime() - start);
+    }
+    
+    /**
+     * BUY: negative impact on quantity and PnL
+     * SELL: positive impact on quantity and PnL
+     */
+    private int signedQuantity(String side, int quantity) {
+        return "BUY".equalsIgnoreCase(side) ? -quantity : quantity;
+    }
+    
+    /**
+     * Replace all positions with totals rebuilt from PostgreSQL
+     * Consumers must not apply updates meanwhile (see PositionRebuildService)
+     */
+    public void replaceAllPositions(Map<String, PositionTotal> positions) {
+        positionStore.replaceAll(positions);
+        positionStore.incrementVersion();
+    }
+    
+    /**
+     * Average-cost replay of one position's stored fills, for rebuilding positions from PostgreSQL
+     * Uses the same accounting as the consumer path (PositionBook)
+     */
+    public PositionReplay newPositionReplay() {
+        PositionBook book = PositionBook.read(null);
+        return new PositionReplay() {
+            @Override
+            public void fill(int signedQuantity, long priceScaled) {
+                book.fill(signedQuantity, priceScaled);
+            }
+            
+            @Override
+            public void complete(PositionTotal total) {
+                total.setCostBasisScaled(book.getCostBasisScaled());
+                total.setRealizedPnlScaled(book.getRealizedPnlScaled());
+            }
+        };
+    }
+    
+    /**
+     * Whether the cache holds no positions (e.g. after the Ignite cluster restarted)
+     */
+    public boolean isEmpty() {
+        return positionStore.size() == 0;
     }
     
     /**
      * Get all positions
      */
-    public java.util.Map<String, Position> getAllPositions() {
-        IgniteCache<String, Position> cache = getCache();
-        java.util.Map<String, Position> positions = new java.util.HashMap<>();
+    public Map<String, Position> getAllPositions() {
+        return getSnapshot(null).getPositions();
+    }
+    
+    /**
+     * Get a versioned snapshot of all positions
+     * If sinceVersion is the current version, returns an "unchanged" marker without reading the cache.
+     * Otherwise the last snapshot is reused while the version has not moved, and only rebuilt
+     * (with a paged ScanQuery over all nodes) after an update.
+     */
+    public PositionSnapshot getSnapshot(Long sinceVersion) {
+        // Read the version before scanning: a concurrent update bumps it afterwards,
+        // so the next caller rescans rather than trusting a possibly stale snapshot
+        long currentVersion = positionStore.getVersion();
+        if (sinceVersion != null && sinceVersion == currentVersion) {
+            return new PositionSnapshot(currentVersion, true, null);
+        }
         
-        // Iterate through cache entries
-        cache.forEach(entry -> positions.put(entry.getKey(), entry.getValue()));
+        PositionSnapshot snapshot = lastSnapshot;
+        if (snapshot != null && snapshot.getVersion() == currentVersion) {
+            return snapshot;
+        }
         
-        return positions;
+        Map<String, Position> positions = positionStore.scanAll(scanPageSize);
+        snapshot = new PositionSnapshot(currentVersion, false, Collections.unmodifiableMap(positions));
+        lastSnapshot = snapshot;
+        return snapshot;
+    }
+    
+    /**
+     * Subscribe to position changes across the cluster
+     * Uses an Ignite ContinuousQuery, so only changed entries are pushed to this node
+     * Close the returned cursor to unsubscribe
+     */
+    public QueryCursor<Cache.Entry<String, Position>> subscribe(BiConsumer<String, Position> listener) {
+        return positionStore.subscribe(listener, () -> { });
+    }
+    
+    /**
+     * Subscribe to position changes; onLost runs if changes stop being delivered
+     * (thin client connection lost), after which the caller has to subscribe again
+     */
+    public QueryCursor<Cache.Entry<String, Position>> subscribe(BiConsumer<String, Position> listener,
+                                                                Runnable onLost) {
+        return positionStore.subscribe(listener, onLost);
     }
 }
-
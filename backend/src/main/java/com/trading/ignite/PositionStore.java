@@ -0,0 +1,73 @@
+package com.trading.ignite;
+
+import com.trading.model.Position;
+import com.trading.model.PositionTotal;
+import org.apache.ignite.cache.query.QueryCursor;
+
+import javax.cache.Cache;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Access to the Ignite positions cache and its cluster-wide version counter
+ * Implemented over a thick client node (ThickPositionStore) or the thin client (ThinPositionStore),
+ * selected with ignite.client-mode
+ */
+interface PositionStore {
+
+    String CACHE_NAME = "positions";
+    String VERSION_NAME = "positions-version";
+
+    /**
+     * Get the position of a symbol, or null if it never traded
+     */
+    Position get(String symbol);
+
+    /**
+     * Apply accumulated fills, atomically per symbol
+     *
+     * @throws PositionUpdateException if some symbols could not be updated
+     */
+    void apply(Map<String, PositionUpdateProcessor> updates);
+
+    /**
+     * Mark positions to new market prices, atomically per symbol
+     * Symbols without a position are skipped
+     */
+    void mark(Map<String, MarkToMarketProcessor> marks);
+
+    /**
+     * Replace the whole cache with the given positions (positions rebuilt from PostgreSQL)
+     * Not atomic: readers may briefly see the cache partially loaded
+     */
+    void replaceAll(Map<String, PositionTotal> positions);
+
+    /**
+     * Number of symbols in the cache
+     */
+    int size();
+
+    /**
+     * Read all positions, fetching pageSize entries per round trip
+     */
+    Map<String, Position> scanAll(int pageSize);
+
+    /**
+     * Listen to position changes across the cluster; close the cursor to unsubscribe
+     * onLost runs if the subscription stops delivering changes (thin client connection lost)
+     */
+    QueryCursor<Cache.Entry<String, Position>> subscribe(BiConsumer<String, Position> listener, Runnable onLost);
+
+    long getVersion();
+
+    void incrementVersion();
+
+    /**
+     * Value the version counter starts from when it is created: the creation time, 1000 per millisecond
+     * The counter is lost when the Ignite cluster restarts; starting from 0 again would hand out versions
+     * that clients and cached snapshots already hold for other data. Stays below 2^53 for JavaScript clients
+     */
+    static long initialVersion() {
+        return System.currentTimeMillis() * 1000;
+    }
+}
@@ -0,0 +1,21 @@
+package com.trading.ignite;
+
+import java.util.Set;
+
+/**
+ * Thrown when a position update failed for some symbols
+ * The updates of getAppliedSymbols() did reach the cache and must not be applied again
+ */
+public class PositionUpdateException extends RuntimeException {
+
+    private final Set<String> appliedSymbols;
+
+    public PositionUpdateException(Set<String> appliedSymbols, Throwable cause) {
+        super("Position update failed, " + appliedSymbols.size() + " symbol(s) applied", cause);
+        this.appliedSymbols = appliedSymbols;
+    }
+
+    public Set<String> getAppliedSymbols() {
+        return appliedSymbols;
+    }
+}
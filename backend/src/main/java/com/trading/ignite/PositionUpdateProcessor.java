@@ -0,0 +1,80 @@
+package com.trading.ignite;
+
+import com.trading.model.Position;
+import com.trading.model.PositionTotal;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteBinary;
+import org.apache.ignite.binary.BinaryObject;
+import org.apache.ignite.cache.CacheEntryProcessor;
+import org.apache.ignite.resources.IgniteInstanceResource;
+
+import javax.cache.processor.MutableEntry;
+
+/**
+ * Entry processor that applies a batch of fills to a position
+ * Runs on the primary node that owns the symbol, so the read-modify-write
+ * happens in a single round trip and concurrent consumers cannot lose updates
+ *
+ * Works on the binary form of Position so the server node does not need
+ * the model classes on its classpath (only this processor is peer-loaded)
+ *
+ * PnL is kept as a fixed-point long (pnlScaled = PnL * PNL_SCALE) next to the pnl double
+ * read by the API, so it is summed exactly; entries written before pnlScaled existed
+ * are converted from pnl on their first update.
+ * Fills are applied one by one in consumption order, because the average cost, and so
+ * the realized/unrealized split, depends on their sequence (see PositionBook)
+ */
+public class PositionUpdateProcessor implements CacheEntryProcessor<String, BinaryObject, Void> {
+    private static final long serialVersionUID = 3L;
+
+    // Four decimal places of PnL precision
+    public static final long PNL_SCALE = 10_000;
+
+    static final String POSITION_TYPE = Position.class.getName();
+
+    @IgniteInstanceResource
+    private transient Ignite ignite;
+
+    // Signed quantities: BUY is negative, SELL is positive (same convention as Position)
+    private final int[] quantities;
+    private final long[] pricesScaled;
+
+    public PositionUpdateProcessor(int[] quantities, long[] pricesScaled) {
+        this.quantities = quantities;
+        this.pricesScaled = pricesScaled;
+    }
+
+    @Override
+    public Void process(MutableEntry<String, BinaryObject> entry, Object... args) {
+        entry.setValue(apply(entry.getValue(), ignite.binary(), quantities, pricesScaled));
+        return null;
+    }
+
+    int[] getQuantities() {
+        return quantities;
+    }
+
+    long[] getPricesScaled() {
+        return pricesScaled;
+    }
+
+    /**
+     * Position after applying the fills to current (null for a new symbol)
+     * Shared with the thin client path, which applies it with compare-and-set instead of invoke
+     */
+    static BinaryObject apply(BinaryObject current, IgniteBinary binary, int[] quantities, long[] pricesScaled) {
+        PositionBook book = PositionBook.read(current);
+        for (int i = 0; i < quantities.length; i++) {
+            book.fill(quantities[i], pricesScaled[i]);
+        }
+        return book.write(current, binary);
+    }
+
+    /**
+     * New position from totals rebuilt from PostgreSQL
+     */
+    static BinaryObject fromTotals(IgniteBinary binary, PositionTotal total) {
+        return PositionBook.of(total.getNetQuantity(), total.getPnlScaled(),
+            total.getCostBasisScaled(), total.getRealizedPnlScaled()).write(null, binary);
+    }
+}
@@ -0,0 +1,181 @@
+package com.trading.ignite;
+
+import com.trading.model.Position;
+import com.trading.model.PositionTotal;
+import jakarta.annotation.PostConstruct;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteAtomicLong;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.IgniteDataStreamer;
+import org.apache.ignite.binary.BinaryObject;
+import org.apache.ignite.cache.CacheEntryProcessor;
+import org.apache.ignite.cache.CachePartialUpdateException;
+import org.apache.ignite.cache.eviction.lru.LruEvictionPolicyFactory;
+import org.apache.ignite.cache.query.ContinuousQuery;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.apache.ignite.cache.query.ScanQuery;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.configuration.NearCacheConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.cache.Cache;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.processor.EntryProcessorResult;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Positions cache accessed through a thick client node (ignite.client-mode=thick)
+ * Updates run as entry processors on the primary node of each symbol
+ */
+@Component
+@ConditionalOnProperty(name = "ignite.client-mode", havingValue = "thick", matchIfMissing = true)
+class ThickPositionStore implements PositionStore {
+
+    @Autowired
+    private Ignite ignite;
+
+    @Value("${trading.positions.near-cache.enabled}")
+    private boolean nearCacheEnabled;
+
+    @Value("${trading.positions.near-cache.max-size}")
+    private int nearCacheMaxSize;
+
+    private IgniteCache<String, Position> cache;
+    private IgniteAtomicLong version;
+
+    /**
+     * Resolve the positions cache once
+     * With the near cache enabled, reads of hot symbols are served from this JVM;
+     * Ignite keeps near entries coherent by updating/invalidating them on every server-side change
+     */
+    @PostConstruct
+    public void init() {
+        if (nearCacheEnabled) {
+            NearCacheConfiguration<String, Position> nearCfg = new NearCacheConfiguration<>();
+            // Bounded: least recently used symbols are evicted from the near cache (not from the cluster)
+            nearCfg.setNearEvictionPolicyFactory(new LruEvictionPolicyFactory<>(nearCacheMaxSize));
+            // Only this call may start the client cache: once it runs without a near cache, one cannot be added
+            cache = ignite.getOrCreateCache(new CacheConfiguration<>(CACHE_NAME), nearCfg);
+        } else {
+            cache = ignite.getOrCreateCache(CACHE_NAME);
+        }
+
+        version = ignite.atomicLong(VERSION_NAME, PositionStore.initialVersion(), true);
+    }
+
+    @Override
+    public Position get(String symbol) {
+        return cache.get(symbol);
+    }
+
+    /**
+     * One invokeAll for all symbols; entry processors work on the binary form
+     * because the server node does not have the Position class
+     */
+    @Override
+    public void apply(Map<String, PositionUpdateProcessor> updates) {
+        invokeAll(updates);
+    }
+
+    @Override
+    public void mark(Map<String, MarkToMarketProcessor> marks) {
+        invokeAll(marks);
+    }
+
+    /**
+     * Failed symbols are reported with PositionUpdateException, together with the ones that were applied
+     */
+    private void invokeAll(Map<String, ? extends CacheEntryProcessor<String, BinaryObject, Void>> processors) {
+        IgniteCache<String, BinaryObject> binaryCache = cache.withKeepBinary();
+        Map<String, EntryProcessorResult<Void>> results;
+        try {
+            results = binaryCache.invokeAll(processors);
+        } catch (CachePartialUpdateException e) {
+            Set<String> applied = new HashSet<>(processors.keySet());
+            applied.removeAll(e.failedKeys());
+            throw new PositionUpdateException(applied, e);
+        }
+
+        // Surface processor failures instead of silently dropping them
+        RuntimeException failure = null;
+        Set<String> applied = new HashSet<>(processors.keySet());
+        for (Map.Entry<String, EntryProcessorResult<Void>> result : results.entrySet()) {
+            try {
+                result.getValue().get();
+            } catch (RuntimeException e) {
+                applied.remove(result.getKey());
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw new PositionUpdateException(applied, failure);
+        }
+    }
+
+    /**
+     * Clears the cache, then loads the positions with a data streamer (batched per node)
+     */
+    @Override
+    public void replaceAll(Map<String, PositionTotal> positions) {
+        cache.clear();
+        try (IgniteDataStreamer<String, BinaryObject> streamer = ignite.dataStreamer(CACHE_NAME)) {
+            streamer.keepBinary(true);
+            // Overwrite anything a consumer on another instance wrote after the clear
+            streamer.allowOverwrite(true);
+            for (Map.Entry<String, PositionTotal> entry : positions.entrySet()) {
+                PositionTotal total = entry.getValue();
+                streamer.addData(entry.getKey(), PositionUpdateProcessor.fromTotals(ignite.binary(), total));
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return cache.size();
+    }
+
+    @Override
+    public Map<String, Position> scanAll(int pageSize) {
+        Map<String, Position> positions = new HashMap<>();
+        ScanQuery<String, Position> query = new ScanQuery<>();
+        query.setPageSize(pageSize);
+        try (QueryCursor<Cache.Entry<String, Position>> cursor = cache.query(query)) {
+            for (Cache.Entry<String, Position> entry : cursor) {
+                positions.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * The client node re-registers the query after reconnecting, so onLost is never called
+     */
+    @Override
+    public QueryCursor<Cache.Entry<String, Position>> subscribe(BiConsumer<String, Position> listener,
+                                                                Runnable onLost) {
+        ContinuousQuery<String, Position> query = new ContinuousQuery<>();
+        query.setLocalListener(events -> {
+            for (CacheEntryEvent<? extends String, ? extends Position> event : events) {
+                listener.accept(event.getKey(), event.getValue());
+            }
+        });
+        return cache.query(query);
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public void incrementVersion() {
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,177 @@
+package com.trading.ignite;
+
+import com.trading.model.Position;
+import com.trading.model.PositionTotal;
+import jakarta.annotation.PostConstruct;
+import org.apache.ignite.binary.BinaryObject;
+import org.apache.ignite.cache.query.ContinuousQuery;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.apache.ignite.cache.query.ScanQuery;
+import org.apache.ignite.client.ClientAtomicLong;
+import org.apache.ignite.client.ClientCache;
+import org.apache.ignite.client.IgniteClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.cache.Cache;
+import javax.cache.event.CacheEntryEvent;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Positions cache accessed through the thin client (ignite.client-mode=thin)
+ * The thin client has no entry processors, so updates are applied with compare-and-set:
+ * read all touched positions with one getAll, then replace each one if it did not change meanwhile
+ * (re-reading and retrying the symbols that did). With partition awareness every request goes
+ * straight to the node that owns the symbol. There is no near cache in this mode.
+ */
+@Component
+@ConditionalOnProperty(name = "ignite.client-mode", havingValue = "thin")
+class ThinPositionStore implements PositionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThinPositionStore.class);
+
+    private static final int REPLACE_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private IgniteClient client;
+
+    private ClientCache<String, Position> cache;
+    private ClientCache<String, BinaryObject> binaryCache;
+    private ClientAtomicLong version;
+
+    @PostConstruct
+    public void init() {
+        cache = client.getOrCreateCache(CACHE_NAME);
+        binaryCache = cache.withKeepBinary();
+        version = client.atomicLong(VERSION_NAME, PositionStore.initialVersion(), true);
+    }
+
+    @Override
+    public Position get(String symbol) {
+        return cache.get(symbol);
+    }
+
+    /**
+     * Symbols are updated one after another; if one fails, the ones before it are reported as
+     * applied with PositionUpdateException
+     */
+    @Override
+    public void apply(Map<String, PositionUpdateProcessor> updates) {
+        Set<String> applied = new HashSet<>();
+        try {
+            applyEach(updates, applied);
+        } catch (RuntimeException e) {
+            throw new PositionUpdateException(applied, e);
+        }
+    }
+
+    private void applyEach(Map<String, PositionUpdateProcessor> updates, Set<String> applied) {
+        Map<String, BinaryObject> current = binaryCache.getAll(updates.keySet());
+        for (Map.Entry<String, PositionUpdateProcessor> update : updates.entrySet()) {
+            String symbol = update.getKey();
+            PositionUpdateProcessor delta = update.getValue();
+            BinaryObject expected = current.get(symbol);
+            while (true) {
+                BinaryObject updated = PositionUpdateProcessor.apply(expected, client.binary(),
+                    delta.getQuantities(), delta.getPricesScaled());
+                boolean replaced = expected == null
+                    ? binaryCache.putIfAbsent(symbol, updated)
+                    : binaryCache.replace(symbol, expected, updated);
+                if (replaced) {
+                    applied.add(symbol);
+                    break;
+                }
+                // Changed concurrently by another consumer - retry on the latest value
+                expected = binaryCache.get(symbol);
+            }
+        }
+    }
+
+    /**
+     * Same compare-and-set loop as apply, but a symbol without a position is not created
+     */
+    @Override
+    public void mark(Map<String, MarkToMarketProcessor> marks) {
+        Map<String, BinaryObject> current = binaryCache.getAll(marks.keySet());
+        for (Map.Entry<String, BinaryObject> entry : current.entrySet()) {
+            String symbol = entry.getKey();
+            long markPriceScaled = marks.get(symbol).getMarkPriceScaled();
+            BinaryObject expected = entry.getValue();
+            while (expected != null
+                && !binaryCache.replace(symbol, expected, MarkToMarketProcessor.mark(expected, markPriceScaled))) {
+                expected = binaryCache.get(symbol);
+            }
+        }
+    }
+
+    /**
+     * Clears the cache, then loads the positions with putAll in chunks (the thin client has no data streamer)
+     */
+    @Override
+    public void replaceAll(Map<String, PositionTotal> positions) {
+        binaryCache.clear();
+        Map<String, BinaryObject> chunk = new HashMap<>();
+        for (Map.Entry<String, PositionTotal> entry : positions.entrySet()) {
+            PositionTotal total = entry.getValue();
+            chunk.put(entry.getKey(), PositionUpdateProcessor.fromTotals(client.binary(), total));
+            if (chunk.size() == REPLACE_CHUNK_SIZE) {
+                binaryCache.putAll(chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            binaryCache.putAll(chunk);
+        }
+    }
+
+    @Override
+    public int size() {
+        return cache.size();
+    }
+
+    @Override
+    public Map<String, Position> scanAll(int pageSize) {
+        Map<String, Position> positions = new HashMap<>();
+        ScanQuery<String, Position> query = new ScanQuery<>();
+        query.setPageSize(pageSize);
+        try (QueryCursor<Cache.Entry<String, Position>> cursor = cache.query(query)) {
+            for (Cache.Entry<String, Position> entry : cursor) {
+                positions.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return positions;
+    }
+
+    @Override
+    public QueryCursor<Cache.Entry<String, Position>> subscribe(BiConsumer<String, Position> listener,
+                                                                Runnable onLost) {
+        ContinuousQuery<String, Position> query = new ContinuousQuery<>();
+        query.setLocalListener(events -> {
+            for (CacheEntryEvent<? extends String, ? extends Position> event : events) {
+                listener.accept(event.getKey(), event.getValue());
+            }
+        });
+        // The query does not survive a lost connection; dashboards fall back to their periodic refresh
+        return cache.query(query, reason -> {
+            logger.warn("Position subscription lost: {}", reason.getMessage());
+            onLost.run();
+        });
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public void incrementVersion() {
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,89 @@
+package com.trading.ignite;
+
+import jakarta.annotation.PostConstruct;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.query.ContinuousQuery;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.apache.ignite.client.ClientCache;
+import org.apache.ignite.client.IgniteClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.cache.Cache;
+import javax.cache.event.CacheEntryEvent;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Cluster-wide notification of symbols whose stored trades changed
+ * Every backend instance writes the symbols of each persisted batch to the small trade_changes cache
+ * (symbol to last change time) and listens to it with a ContinuousQuery, so all instances learn
+ * about trades persisted anywhere without polling PostgreSQL
+ */
+@Component
+public class TradeChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradeChangeFeed.class);
+
+    private static final String CACHE_NAME = "trade_changes";
+
+    // Exactly one of these exists, depending on ignite.client-mode
+    @Autowired(required = false)
+    private Ignite ignite;
+
+    @Autowired(required = false)
+    private IgniteClient igniteClient;
+
+    private IgniteCache<String, Long> changes;
+    private ClientCache<String, Long> changesThin;
+
+    @PostConstruct
+    public void init() {
+        if (igniteClient != null) {
+            changesThin = igniteClient.getOrCreateCache(CACHE_NAME);
+        } else {
+            changes = ignite.getOrCreateCache(CACHE_NAME);
+        }
+    }
+
+    /**
+     * Announce that trades of these symbols were persisted (call after the transaction commits)
+     */
+    public void publish(Collection<String> symbols) {
+        long now = System.currentTimeMillis();
+        Map<String, Long> entries = new TreeMap<>();
+        for (String symbol : symbols) {
+            entries.put(symbol, now);
+        }
+        if (changesThin != null) {
+            changesThin.putAll(entries);
+        } else {
+            changes.putAll(entries);
+        }
+    }
+
+    /**
+     * Listen to symbols whose trades changed on any instance (including this one); close the cursor to unsubscribe
+     * onLost runs if the subscription stops delivering changes (thin client connection lost)
+     */
+    public QueryCursor<Cache.Entry<String, Long>> subscribe(Consumer<String> listener, Runnable onLost) {
+        ContinuousQuery<String, Long> query = new ContinuousQuery<>();
+        query.setLocalListener(events -> {
+            for (CacheEntryEvent<? extends String, ? extends Long> event : events) {
+                listener.accept(event.getKey());
+            }
+        });
+        if (changesThin != null) {
+            return changesThin.query(query, reason -> {
+                logger.warn("Trade change subscription lost: {}", reason.getMessage());
+                onLost.run();
+            });
+        }
+        return changes.query(query);
+    }
+}
@@ -1,26 +1,118 @@
 package com.trading.kafka;
 
+import com.trading.model.PriceTick;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaConsumerFactoryCustomizer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
 
 /**
  * Kafka topic configuration
- * Ensures trade_orders topic exists
+ * Ensures the trade_orders and market_prices topics exist
  * Note: Kafka will auto-create topics by default, but this makes it explicit
+ * 
+ * Trades are keyed by symbol, so each symbol always lands on the same partition
+ * and is processed in order by a single listener thread
  */
 @Configuration
 public class KafkaConfig {
     
     private static final String TOPIC_NAME = "trade_orders";
     
+    /**
+     * Container factory for single-record listeners (the retry topics)
+     */
+    public static final String RECORD_LISTENER_CONTAINER_FACTORY = "recordKafkaListenerContainerFactory";
+    
+    /**
+     * Container factory for the market_prices batch listener
+     */
+    public static final String PRICE_LISTENER_CONTAINER_FACTORY = "priceKafkaListenerContainerFactory";
+    
+    @Value("${trading.kafka.trade-orders-partitions}")
+    private int tradeOrdersPartitions;
+    
+    @Value("${trading.kafka.market-prices-partitions}")
+    private int marketPricesPartitions;
+    
+    /**
+     * Partition count bounds the useful listener concurrency (spring.kafka.listener.concurrency)
+     * Increasing it on an existing topic adds partitions, which remaps symbols to partitions
+     */
     @Bean
     public NewTopic tradeOrdersTopic() {
         return TopicBuilder.name(TOPIC_NAME)
-                .partitions(1)
+                .partitions(tradeOrdersPartitions)
                 .replicas(1)
                 .build();
     }
+    
+    /**
+     * Same settings as the default (batch) container factory, but one record per listener call
+     * Needed by the retry topic listener, since retry topics do not support batch listeners
+     */
+    @Bean(RECORD_LISTENER_CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> recordKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(false);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
+        return factory;
+    }
+    
+    /**
+     * Price ticks are keyed by symbol, like trades
+     */
+    @Bean
+    public NewTopic marketPricesTopic() {
+        return TopicBuilder.name(MarketPriceConsumer.TOPIC)
+                .partitions(marketPricesPartitions)
+                .replicas(1)
+                .build();
+    }
+    
+    /**
+     * Batch listener factory for JSON price ticks
+     * A tick that cannot be decoded arrives as a null value instead of blocking the partition,
+     * and a new consumer group starts from the latest ticks, since older prices are superseded anyway
+     * Boot's consumer factory customizers are applied like on the default factory (e.g. Micrometer client metrics)
+     */
+    @Bean(PRICE_LISTENER_CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<String, PriceTick> priceKafkaListenerContainerFactory(
+            KafkaProperties kafkaProperties,
+            ObjectProvider<DefaultKafkaConsumerFactoryCustomizer> customizers) {
+        Map<String, Object> props = kafkaProperties.buildConsumerProperties();
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        DefaultKafkaConsumerFactory<String, PriceTick> consumerFactory = new DefaultKafkaConsumerFactory<>(props,
+                new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(new JsonDeserializer<>(PriceTick.class, false)));
+        customizers.orderedStream().forEach(customizer -> customizer.customize(consumerFactory));
+        
+        ConcurrentKafkaListenerContainerFactory<String, PriceTick> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        Integer concurrency = kafkaProperties.getListener().getConcurrency();
+        if (concurrency != null) {
+            factory.setConcurrency(concurrency);
+        }
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        return factory;
+    }
 }
-
@@ -0,0 +1,67 @@
+package com.trading.kafka;
+
+import com.trading.ignite.MarketPriceCache;
+import com.trading.ignite.PositionService;
+import com.trading.metrics.TradeMetrics;
+import com.trading.model.PriceTick;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kafka consumer for the market_prices feed
+ * Each poll is conflated to the last tick per symbol, which is stored in the market_prices cache and
+ * used to mark just that symbol's position (see PositionService.markToMarket). A symbol ticking faster
+ * than positions can be re-valued costs one Ignite update per poll, not one per tick.
+ */
+@Service
+public class MarketPriceConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarketPriceConsumer.class);
+
+    public static final String TOPIC = "market_prices";
+    public static final String GROUP_ID = "trading-price-consumer-group";
+
+    @Autowired
+    private MarketPriceCache marketPriceCache;
+
+    @Autowired
+    private PositionService positionService;
+
+    @Autowired
+    private TradeMetrics tradeMetrics;
+
+    @KafkaListener(topics = TOPIC, groupId = GROUP_ID,
+        containerFactory = KafkaConfig.PRICE_LISTENER_CONTAINER_FACTORY)
+    public void consumePrices(List<ConsumerRecord<String, PriceTick>> records) {
+        // Ticks are keyed by symbol, so within a partition the later record is the newer price
+        Map<String, PriceTick> latest = new HashMap<>();
+        for (ConsumerRecord<String, PriceTick> record : records) {
+            PriceTick tick = record.value();
+            if (tick == null || tick.getSymbol() == null || !(tick.getPrice() > 0)) {
+                logger.warn("Skipping invalid price tick at {}-{}@{}", record.topic(), record.partition(), record.offset());
+                continue;
+            }
+            latest.put(tick.getSymbol(), tick);
+        }
+        tradeMetrics.recordPriceTicks(records.size(), latest.size());
+        if (latest.isEmpty()) {
+            return;
+        }
+
+        marketPriceCache.putAll(latest);
+        Map<String, Double> prices = new HashMap<>(latest.size() * 2);
+        for (PriceTick tick : latest.values()) {
+            prices.put(tick.getSymbol(), tick.getPrice());
+        }
+        positionService.markToMarket(prices);
+        logger.debug("Marked {} symbols from {} price ticks", latest.size(), records.size());
+    }
+}
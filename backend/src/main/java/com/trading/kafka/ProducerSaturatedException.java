@@ -0,0 +1,13 @@
+package com.trading.kafka;
+
+/**
+ * Thrown when a trade cannot be published because the producer already has the maximum
+ * number of unacknowledged sends in flight (see TradeProducer)
+ * Nothing was sent; the caller may retry later
+ */
+public class ProducerSaturatedException extends RuntimeException {
+
+    public ProducerSaturatedException(int requested, int inFlight, int maxInFlight) {
+        super("Producer saturated: " + requested + " send(s) requested with " + inFlight + "/" + maxInFlight + " in flight");
+    }
+}
@@ -0,0 +1,41 @@
+package com.trading.kafka;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.retrytopic.DeadLetterPublishingRecovererFactory;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationSupport;
+
+import java.util.function.Consumer;
+
+/**
+ * Retry topic setup for @RetryableTopic listeners
+ * A trade whose position was applied before persisting it failed is published to the next retry
+ * topic (and finally the dead-letter topic) with the positions-applied header, so neither the
+ * retries nor a later replay apply its position again
+ */
+@Configuration
+public class RetryTopicConfig extends RetryTopicConfigurationSupport {
+
+    @Override
+    protected Consumer<DeadLetterPublishingRecovererFactory> configureDeadLetterPublishingContainerFactory() {
+        return factory -> factory.setDeadLetterPublishingRecovererCustomizer(recoverer ->
+            recoverer.setHeadersFunction((record, exception) -> {
+                // Headers of the failed record (including an earlier positions-applied) are copied anyway
+                Headers headers = new RecordHeaders();
+                if (!TradeConsumer.positionsApplied(record) && causedBy(exception, TradePersistenceException.class)) {
+                    TradeConsumer.markPositionsApplied(headers);
+                }
+                return headers;
+            }));
+    }
+
+    private static boolean causedBy(Throwable exception, Class<? extends Throwable> type) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,76 +1,335 @@
 package com.trading.kafka;
 
 import com.trading.ignite.PositionService;
+import com.trading.ignite.PositionUpdateException;
+import com.trading.metrics.TradeMetrics;
 import com.trading.model.Trade;
 import com.trading.model.TradeEvent;
-import com.trading.repository.TradeRepository;
+import com.trading.repository.TradeOffsetRepository;
+import com.trading.service.TradePersistenceService;
+import com.trading.service.TradeWriteBehindService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Headers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Kafka consumer for processing trade events
  * Processes trades asynchronously:
  * 1. Updates Ignite cache with position data
- * 2. Persists trade to PostgreSQL
+ * 2. Persists trade to PostgreSQL and updates the daily per-symbol aggregates
+ *    (or queues it for TradeWriteBehindService in write-behind mode)
+ * Failed trades go through non-blocking retry topics and end up in a dead-letter topic
+ * In sync mode the consumed offsets are stored with the trades, and partitions resume from them
+ * 
+ * Runs with spring.kafka.listener.concurrency threads, each owning a set of partitions
+ * Trades are keyed by symbol, so per-symbol order is kept
  */
 @Service
-public class TradeConsumer {
+public class TradeConsumer implements ConsumerSeekAware {
     
     private static final Logger logger = LoggerFactory.getLogger(TradeConsumer.class);
     
+    // Resolved once: ZoneId.systemDefault() clones the default TimeZone on every call
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final ZoneOffset FIXED_OFFSET = ZONE.getRules().isFixedOffset()
+        ? ZONE.getRules().getOffset(Instant.EPOCH)
+        : null;
+    
+    public static final String TOPIC = "trade_orders";
+    public static final String GROUP_ID = "trading-consumer-group";
+    
+    /**
+     * Entry topic for trades that failed in the batch listener
+     * Retry topics (trade_orders.recovery-retry-N) and the dead-letter topic (trade_orders.recovery-dlt)
+     * are created from it by @RetryableTopic
+     */
+    public static final String RECOVERY_TOPIC = "trade_orders.recovery";
+    public static final String DLT_TOPIC = RECOVERY_TOPIC + "-dlt";
+    
+    /**
+     * Header of forwarded trades whose position was already applied (only persisting them failed)
+     * Kept through the retry topics, the dead-letter topic and the replay, so the position is applied
+     * once even when the trade comes back after the dedup window
+     */
+    public static final String POSITIONS_APPLIED_HEADER = "positions-applied";
+    private static final byte[] POSITIONS_APPLIED = "true".getBytes(StandardCharsets.UTF_8);
+    
     @Autowired
     private PositionService positionService;
     
     @Autowired
-    private TradeRepository tradeRepository;
+    private TradePersistenceService tradePersistenceService;
+    
+    @Autowired
+    private TradeMetrics tradeMetrics;
+    
+    @Autowired
+    private TradeDeduplicator tradeDeduplicator;
+    
+    @Autowired
+    private TradeWriteBehindService tradeWriteBehindService;
+    
+    @Autowired
+    private TradeOffsetRepository tradeOffsetRepository;
+    
+    @Autowired
+    private KafkaTemplate<String, TradeEvent> kafkaTemplate;
     
     /**
-     * Consumes trade events from Kafka topic
-     * This method is called automatically when a message arrives
+     * Resume trade_orders partitions from the offsets stored with the trades in PostgreSQL
+     * They are written in the same transaction as the trades, so they are never behind the
+     * Kafka-committed offsets in sync mode: after a crash between the database commit and the offset
+     * commit, and after positions were rebuilt from PostgreSQL, the consumer continues exactly
+     * after the last stored trade. Partitions without a stored offset use the committed one.
+     * Write-behind mode does not store offsets (queued trades are not durable) and keeps Kafka's
      */
-    @KafkaListener(topics = "trade_orders", groupId = "trading-consumer-group")
-    public void consumeTrade(TradeEvent tradeEvent) {
-        logger.info("Consuming trade event: {}", tradeEvent);
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        if (tradeWriteBehindService.isEnabled()) {
+            return;
+        }
+        Map<Integer, Long> storedOffsets = null;
+        for (TopicPartition partition : assignments.keySet()) {
+            if (!TOPIC.equals(partition.topic())) {
+                continue;
+            }
+            if (storedOffsets == null) {
+                storedOffsets = tradeOffsetRepository.findAll(GROUP_ID, TOPIC);
+            }
+            Long nextOffset = storedOffsets.get(partition.partition());
+            if (nextOffset != null) {
+                callback.seek(partition.topic(), partition.partition(), nextOffset);
+            }
+        }
+    }
+    
+    /**
+     * Consumes trade events from Kafka topic in batches
+     * This method is called automatically with every poll (up to max-poll-records events)
+     * Offsets are committed once per batch after this method returns
+     * 
+     * If the batch fails, its records are retried one by one; records that still fail are
+     * forwarded to the recovery topic, so one bad record does not stall the partition
+     */
+    @KafkaListener(topics = TOPIC, groupId = GROUP_ID)
+    public void consumeTrades(List<ConsumerRecord<String, TradeEvent>> records) throws Exception {
+        logger.debug("Consuming batch of {} trade events", records.size());
+        
+        List<TradeEvent> tradeEvents = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, TradeEvent> record : records) {
+            tradeEvents.add(record.value());
+        }
         
         try {
-            // Step 1: Update Ignite cache with position data
-            positionService.updatePosition(
-                tradeEvent.getSymbol(),
-                tradeEvent.getSide(),
-                tradeEvent.getQuantity(),
-                tradeEvent.getPrice()
-            );
-            logger.info("Updated Ignite position for symbol: {}", tradeEvent.getSymbol());
-            
-            // Step 2: Persist trade to PostgreSQL
-            Trade trade = new Trade();
-            trade.setTradeId(tradeEvent.getTradeId());
-            trade.setSymbol(tradeEvent.getSymbol());
-            trade.setSide(tradeEvent.getSide());
-            trade.setQuantity(tradeEvent.getQuantity());
-            trade.setPrice(tradeEvent.getPrice());
-            
-            // Convert timestamp to LocalDateTime
-            LocalDateTime tradeTime = LocalDateTime.ofInstant(
-                Instant.ofEpochMilli(tradeEvent.getTimestamp()),
-                ZoneId.systemDefault()
-            );
-            trade.setTradeTime(tradeTime);
-            
-            tradeRepository.save(trade);
-            logger.info("Persisted trade to PostgreSQL: {}", trade.getTradeId());
-            
+            process(tradeEvents, positionUpdates(records, tradeEvents), nextOffsets(records));
         } catch (Exception e) {
-            logger.error("Error processing trade event: {}", tradeEvent, e);
-            // In production, you might want to implement retry logic or dead letter queue
+            logger.error("Error processing batch of {} trade events, retrying one by one", records.size(), e);
+            for (ConsumerRecord<String, TradeEvent> record : records) {
+                TradeEvent tradeEvent = record.value();
+                Map<Integer, Long> nextOffset = Map.of(record.partition(), record.offset() + 1);
+                boolean applied = positionsApplied(record);
+                try {
+                    process(List.of(tradeEvent), applied ? List.of() : List.of(tradeEvent), nextOffset);
+                } catch (Exception recordError) {
+                    logger.error("Forwarding trade {} to {}", tradeEvent.getTradeId(), RECOVERY_TOPIC, recordError);
+                    ProducerRecord<String, TradeEvent> forward =
+                        new ProducerRecord<>(RECOVERY_TOPIC, tradeEvent.getSymbol(), tradeEvent);
+                    if (applied || recordError instanceof TradePersistenceException) {
+                        markPositionsApplied(forward.headers());
+                    }
+                    // Wait for the broker so the offset is only committed once the trade is safe in Kafka
+                    kafkaTemplate.send(forward).get();
+                    // The recovery topic owns the trade now; do not read it again from trade_orders
+                    if (!tradeWriteBehindService.isEnabled()) {
+                        tradeOffsetRepository.saveAll(GROUP_ID, TOPIC, nextOffset);
+                    }
+                }
+            }
         }
     }
+    
+    /**
+     * Consumes trades that failed in the batch listener
+     * Failures are retried through delayed retry topics with exponential backoff (without blocking
+     * the other records), then published to the dead-letter topic with the exception and original
+     * topic/partition/offset in the record headers
+     */
+    @RetryableTopic(
+        attempts = "${trading.kafka.retry.attempts}",
+        backoff = @Backoff(
+            delayExpression = "${trading.kafka.retry.initial-delay-ms}",
+            multiplierExpression = "${trading.kafka.retry.multiplier}",
+            maxDelayExpression = "${trading.kafka.retry.max-delay-ms}"),
+        topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+        numPartitions = "${trading.kafka.trade-orders-partitions}",
+        kafkaTemplate = "kafkaTemplate")
+    @KafkaListener(topics = RECOVERY_TOPIC, groupId = GROUP_ID,
+        containerFactory = KafkaConfig.RECORD_LISTENER_CONTAINER_FACTORY)
+    public void consumeFailedTrade(ConsumerRecord<String, TradeEvent> record) throws Exception {
+        TradeEvent tradeEvent = record.value();
+        logger.info("Retrying trade event {}", tradeEvent.getTradeId());
+        process(List.of(tradeEvent), positionsApplied(record) ? List.of() : List.of(tradeEvent), Map.of());
+    }
+    
+    /**
+     * Called with trades that failed every retry, after they were published to the dead-letter topic
+     * Replay them with POST /api/admin/dlt/replay once the cause is fixed
+     */
+    @DltHandler
+    public void onDeadLetter(TradeEvent tradeEvent,
+                             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+                             @Header(name = KafkaHeaders.EXCEPTION_MESSAGE, required = false) String error) {
+        logger.error("Trade {} moved to dead-letter topic {}: {}", tradeEvent.getTradeId(), topic, error);
+    }
+    
+    /**
+     * Whether the record was forwarded with its position already applied
+     */
+    static boolean positionsApplied(ConsumerRecord<?, ?> record) {
+        return record.headers().lastHeader(POSITIONS_APPLIED_HEADER) != null;
+    }
+    
+    static void markPositionsApplied(Headers headers) {
+        headers.add(POSITIONS_APPLIED_HEADER, POSITIONS_APPLIED);
+    }
+    
+    /**
+     * Applies trade events to Ignite and PostgreSQL
+     * Safe to call again for the same trades: positions are deduplicated, inserts are idempotent
+     * Only positionUpdates (a subset of tradeEvents) are applied to positions
+     * nextOffsets (trade_orders partition to next offset) are stored with the trades in sync mode
+     * 
+     * @throws TradePersistenceException if persisting failed once all positions were applied
+     */
+    private void process(List<TradeEvent> tradeEvents, List<TradeEvent> positionUpdates,
+                         Map<Integer, Long> nextOffsets) throws InterruptedException {
+        // Step 1: Update Ignite cache with position data (one invokeAll per batch)
+        // Redelivered trades are skipped here because position updates are not idempotent
+        List<TradeEvent> unapplied = tradeDeduplicator.filterNew(positionUpdates);
+        if (unapplied.size() < tradeEvents.size()) {
+            logger.info("Skipping {} already applied trade events", tradeEvents.size() - unapplied.size());
+        }
+        try {
+            positionService.updatePositions(unapplied);
+        } catch (PositionUpdateException e) {
+            // Symbols that were updated must be skipped when the batch is processed again
+            List<TradeEvent> applied = new ArrayList<>();
+            for (TradeEvent tradeEvent : unapplied) {
+                if (e.getAppliedSymbols().contains(tradeEvent.getSymbol())) {
+                    applied.add(tradeEvent);
+                }
+            }
+            tradeDeduplicator.markProcessed(applied);
+            throw e;
+        }
+        tradeDeduplicator.markProcessed(unapplied);
+        logger.debug("Updated Ignite positions for {} trades", unapplied.size());
+        
+        // Step 2: Persist trades and daily aggregates to PostgreSQL (one transaction per poll)
+        // Idempotent on its own (ON CONFLICT DO NOTHING), so the whole batch is written
+        List<Trade> trades = new ArrayList<>(tradeEvents.size());
+        for (TradeEvent tradeEvent : tradeEvents) {
+            trades.add(toTrade(tradeEvent));
+        }
+        
+        try {
+            if (tradeWriteBehindService.isEnabled()) {
+                tradeWriteBehindService.enqueue(trades);
+                logger.debug("Queued {} trades for write-behind", trades.size());
+            } else {
+                long saveStart = System.nanoTime();
+                int inserted = tradePersistenceService.persist(trades, nextOffsets);
+                tradeMetrics.recordRepositorySave(System.nanoTime() - saveStart);
+                logger.debug("Persisted {} trades to PostgreSQL", inserted);
+            }
+        } catch (RuntimeException e) {
+            throw new TradePersistenceException(e);
+        }
+        
+        long now = System.currentTimeMillis();
+        for (TradeEvent tradeEvent : unapplied) {
+            tradeMetrics.recordTradeProcessed(tradeEvent.getSymbol(), tradeEvent.getTimestamp(), now);
+        }
+    }
+    
+    /**
+     * Trades whose position still has to be applied
+     * tradeEvents itself unless some records were replayed with the positions-applied header
+     */
+    private static List<TradeEvent> positionUpdates(List<ConsumerRecord<String, TradeEvent>> records,
+                                                    List<TradeEvent> tradeEvents) {
+        List<TradeEvent> positionUpdates = tradeEvents;
+        for (int i = 0; i < records.size(); i++) {
+            if (positionsApplied(records.get(i))) {
+                if (positionUpdates == tradeEvents) {
+                    positionUpdates = new ArrayList<>(tradeEvents.subList(0, i));
+                }
+            } else if (positionUpdates != tradeEvents) {
+                positionUpdates.add(tradeEvents.get(i));
+            }
+        }
+        return positionUpdates;
+    }
+    
+    /**
+     * Next offset to consume per partition after this batch
+     */
+    private Map<Integer, Long> nextOffsets(List<ConsumerRecord<String, TradeEvent>> records) {
+        // Offsets only grow within a partition, so the last record of each partition wins;
+        // walking backwards boxes one offset per partition instead of one per record
+        Map<Integer, Long> nextOffsets = new HashMap<>();
+        for (int i = records.size() - 1; i >= 0; i--) {
+            ConsumerRecord<String, TradeEvent> record = records.get(i);
+            if (!nextOffsets.containsKey(record.partition())) {
+                nextOffsets.put(record.partition(), record.offset() + 1);
+            }
+        }
+        return nextOffsets;
+    }
+    
+    /**
+     * Maps a trade event to the trade entity stored in PostgreSQL
+     */
+    static Trade toTrade(TradeEvent tradeEvent) {
+        Trade trade = new Trade();
+        trade.setTradeId(tradeEvent.getTradeId());
+        trade.setSymbol(tradeEvent.getSymbol());
+        trade.setSide(tradeEvent.getSide());
+        trade.setQuantity(tradeEvent.getQuantity());
+        trade.setPrice(tradeEvent.getPrice());
+        
+        // Convert timestamp to LocalDateTime (fixed-offset zones such as UTC skip the Instant)
+        long timestamp = tradeEvent.getTimestamp();
+        LocalDateTime tradeTime = FIXED_OFFSET != null
+            ? LocalDateTime.ofEpochSecond(Math.floorDiv(timestamp, 1000L),
+                (int) Math.floorMod(timestamp, 1000L) * 1_000_000, FIXED_OFFSET)
+            : LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZONE);
+        trade.setTradeTime(tradeTime);
+        
+        return trade;
+    }
 }
-
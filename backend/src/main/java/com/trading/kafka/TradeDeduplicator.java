@@ -0,0 +1,220 @@
+package com.trading.kafka;
+
+import com.trading.metrics.TradeMetrics;
+import com.trading.model.TradeEvent;
+import jakarta.annotation.PostConstruct;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.CacheAtomicityMode;
+import org.apache.ignite.cache.CacheMode;
+import org.apache.ignite.client.ClientCache;
+import org.apache.ignite.client.ClientCacheConfiguration;
+import org.apache.ignite.client.IgniteClient;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.cache.expiry.CreatedExpiryPolicy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filters out trade events whose position update was already applied
+ * (Kafka redelivery after a rebalance or crash)
+ *
+ * Two levels, both time-windowed and bounded in size:
+ * 1. A local two-generation hash set of recently processed tradeIds (no network hop).
+ *    A generation also rotates early once it holds max-local-ids ids, so under high load the
+ *    local window shrinks instead of the heap growing (trading.dedup.early_rotations counts this)
+ * 2. The recent_trade_ids Ignite cache with a created-expiry policy, shared by all backend
+ *    instances, so a partition that moves to another instance still sees what was processed.
+ *    It lives in its own data region with page eviction, so it is bounded by the region size
+ *    and the oldest ids are evicted first when the window does not fit.
+ *    Only ids missing locally are checked there, with one getAll per batch.
+ */
+@Component
+public class TradeDeduplicator {
+
+    private static final String CACHE_NAME = "recent_trade_ids";
+
+    // Exactly one of these exists, depending on ignite.client-mode
+    @Autowired(required = false)
+    private Ignite ignite;
+
+    @Autowired(required = false)
+    private IgniteClient igniteClient;
+
+    @Value("${trading.dedup.enabled}")
+    private boolean enabled;
+
+    @Value("${trading.dedup.window}")
+    private Duration window;
+
+    @Value("${trading.dedup.max-local-ids}")
+    private int maxLocalIds;
+
+    @Value("${trading.dedup.data-region}")
+    private String dataRegion;
+
+    @Autowired
+    private TradeMetrics tradeMetrics;
+
+    private IgniteCache<UUID, Long> recentTradeIds;
+    private ClientCache<UUID, Long> recentTradeIdsThin;
+
+    // Ids processed in the current and previous window; generations rotate every window
+    private volatile Set<UUID> currentGeneration = ConcurrentHashMap.newKeySet();
+    private volatile Set<UUID> previousGeneration = ConcurrentHashMap.newKeySet();
+    private volatile long generationStartedAt = System.currentTimeMillis();
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        tradeMetrics.registerDedupLocalIds(() -> currentGeneration.size() + previousGeneration.size());
+        // Empty: the default data region (unbounded by page eviction)
+        String dataRegionName = dataRegion.isEmpty() ? null : dataRegion;
+        javax.cache.expiry.Duration ttl = new javax.cache.expiry.Duration(TimeUnit.MILLISECONDS, window.toMillis());
+        if (igniteClient != null) {
+            ClientCacheConfiguration cfg = new ClientCacheConfiguration()
+                .setName(CACHE_NAME)
+                .setCacheMode(CacheMode.PARTITIONED)
+                .setAtomicityMode(CacheAtomicityMode.ATOMIC)
+                .setDataRegionName(dataRegionName);
+            // Entries disappear on their own once they are older than the dedup window
+            ClientCache<UUID, Long> cache = igniteClient.getOrCreateCache(cfg);
+            recentTradeIdsThin = cache.withExpirePolicy(new CreatedExpiryPolicy(ttl));
+            return;
+        }
+        CacheConfiguration<UUID, Long> cfg = new CacheConfiguration<>(CACHE_NAME);
+        cfg.setCacheMode(CacheMode.PARTITIONED);
+        cfg.setAtomicityMode(CacheAtomicityMode.ATOMIC);
+        cfg.setDataRegionName(dataRegionName);
+        // Entries disappear on their own once they are older than the dedup window
+        cfg.setExpiryPolicyFactory(CreatedExpiryPolicy.factoryOf(ttl));
+        cfg.setEagerTtl(true);
+        recentTradeIds = ignite.getOrCreateCache(cfg);
+    }
+
+    /**
+     * Get the events that have not been processed yet (also drops duplicates within the batch)
+     */
+    public List<TradeEvent> filterNew(List<TradeEvent> tradeEvents) {
+        if (!enabled) {
+            return tradeEvents;
+        }
+        rotateIfDue();
+
+        Set<UUID> current = currentGeneration;
+        Set<UUID> previous = previousGeneration;
+
+        Map<UUID, TradeEvent> candidates = new HashMap<>();
+        for (TradeEvent tradeEvent : tradeEvents) {
+            UUID tradeId = tradeEvent.getTradeId();
+            if (!current.contains(tradeId) && !previous.contains(tradeId)) {
+                candidates.putIfAbsent(tradeId, tradeEvent);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        Set<UUID> seenElsewhere = recentTradeIdsThin != null
+            ? recentTradeIdsThin.getAll(candidates.keySet()).keySet()
+            : recentTradeIds.getAll(candidates.keySet()).keySet();
+
+        List<TradeEvent> newEvents = new ArrayList<>(candidates.size());
+        Set<UUID> added = new HashSet<>();
+        for (TradeEvent tradeEvent : tradeEvents) {
+            UUID tradeId = tradeEvent.getTradeId();
+            if (candidates.get(tradeId) == tradeEvent && !seenElsewhere.contains(tradeId) && added.add(tradeId)) {
+                newEvents.add(tradeEvent);
+            }
+        }
+        return newEvents;
+    }
+
+    /**
+     * Record events as processed, locally and in the shared Ignite cache
+     * Call right after their position updates are applied
+     */
+    public void markProcessed(List<TradeEvent> tradeEvents) {
+        if (!enabled || tradeEvents.isEmpty()) {
+            return;
+        }
+        // Boxed once for the whole batch
+        Long now = System.currentTimeMillis();
+        Map<UUID, Long> entries = new HashMap<>(tradeEvents.size() * 2);
+        Set<UUID> current = currentGeneration;
+        for (TradeEvent tradeEvent : tradeEvents) {
+            current.add(tradeEvent.getTradeId());
+            entries.put(tradeEvent.getTradeId(), now);
+        }
+        if (recentTradeIdsThin != null) {
+            recentTradeIdsThin.putAll(entries);
+        } else {
+            recentTradeIds.putAll(entries);
+        }
+        if (current.size() >= maxLocalIds) {
+            rotate(true);
+        }
+    }
+
+    /**
+     * Forget all processed trades, locally and in the shared Ignite cache
+     * Called after positions were rebuilt from PostgreSQL, which does not include trades that were
+     * applied to Ignite but not persisted yet; those must be applied again when they are redelivered
+     */
+    public void clear() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            currentGeneration = ConcurrentHashMap.newKeySet();
+            previousGeneration = ConcurrentHashMap.newKeySet();
+            generationStartedAt = System.currentTimeMillis();
+        }
+        if (recentTradeIdsThin != null) {
+            recentTradeIdsThin.clear();
+        } else {
+            recentTradeIds.clear();
+        }
+    }
+
+    private void rotateIfDue() {
+        if (System.currentTimeMillis() - generationStartedAt >= window.toMillis()) {
+            rotate(false);
+        }
+    }
+
+    /**
+     * Start a new generation, dropping the previous one
+     * full: the current generation reached max-local-ids before its window ended
+     */
+    private synchronized void rotate(boolean full) {
+        long now = System.currentTimeMillis();
+        boolean due = full
+            ? currentGeneration.size() >= maxLocalIds
+            : now - generationStartedAt >= window.toMillis();
+        if (!due) {
+            // Another thread rotated meanwhile
+            return;
+        }
+        previousGeneration = currentGeneration;
+        currentGeneration = ConcurrentHashMap.newKeySet();
+        generationStartedAt = now;
+        if (full) {
+            tradeMetrics.recordDedupEarlyRotation();
+        }
+    }
+}
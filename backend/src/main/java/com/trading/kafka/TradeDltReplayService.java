@@ -0,0 +1,107 @@
+package com.trading.kafka;
+
+import com.trading.model.TradeEvent;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Service for replaying dead-lettered trades back into trade_orders
+ * Replayed trades go through the normal consumer again. Trades whose position was applied before
+ * they failed keep the positions-applied header, so only their persistence is retried; the others
+ * are applied to positions when replayed
+ * Progress is tracked with the committed offsets of its own consumer group, so a trade is replayed once
+ */
+@Service
+public class TradeDltReplayService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradeDltReplayService.class);
+
+    private static final String REPLAY_GROUP_ID = "trading-dlt-replay";
+    private static final String TOPIC = "trade_orders";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+
+    @Autowired
+    private ConsumerFactory<String, TradeEvent> consumerFactory;
+
+    @Autowired
+    private KafkaTemplate<String, TradeEvent> kafkaTemplate;
+
+    /**
+     * Republish up to limit dead-lettered trades to trade_orders
+     *
+     * @return number of trades replayed
+     */
+    public synchronized int replay(int limit) throws Exception {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Math.min(limit, 500));
+
+        try (Consumer<String, TradeEvent> consumer =
+                 consumerFactory.createConsumer(REPLAY_GROUP_ID, null, null, overrides)) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo partition : consumer.partitionsFor(TradeConsumer.DLT_TOPIC)) {
+                partitions.add(new TopicPartition(partition.topic(), partition.partition()));
+            }
+            if (partitions.isEmpty()) {
+                return 0;
+            }
+            consumer.assign(partitions);
+
+            int replayed = 0;
+            while (replayed < limit) {
+                ConsumerRecords<String, TradeEvent> records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    break;
+                }
+
+                List<CompletableFuture<SendResult<String, TradeEvent>>> sends = new ArrayList<>();
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                for (ConsumerRecord<String, TradeEvent> record : records) {
+                    if (replayed == limit) {
+                        break;
+                    }
+                    // Only positions-applied is carried over; the exception headers stay in the dead-letter topic
+                    ProducerRecord<String, TradeEvent> replay = new ProducerRecord<>(TOPIC, record.key(), record.value());
+                    if (TradeConsumer.positionsApplied(record)) {
+                        TradeConsumer.markPositionsApplied(replay.headers());
+                    }
+                    sends.add(kafkaTemplate.send(replay));
+                    offsets.put(new TopicPartition(record.topic(), record.partition()),
+                        new OffsetAndMetadata(record.offset() + 1));
+                    replayed++;
+                }
+
+                // Only mark records as replayed once they are safely back in trade_orders
+                for (CompletableFuture<SendResult<String, TradeEvent>> send : sends) {
+                    send.get();
+                }
+                consumer.commitSync(offsets);
+            }
+
+            logger.info("Replayed {} trades from {}", replayed, TradeConsumer.DLT_TOPIC);
+            return replayed;
+        }
+    }
+}
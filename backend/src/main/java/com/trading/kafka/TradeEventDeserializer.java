@@ -0,0 +1,100 @@
+package com.trading.kafka;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trading.model.TradeEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Kafka deserializer for TradeEvent
+ * Reads the binary layout written by TradeEventSerializer and falls back to JSON
+ * for records written by older producers (or with trade.event.wire.format=json)
+ *
+ * Symbols repeat across trades, so decoded symbol strings are cached (by their UTF-8 bytes)
+ * and reused instead of allocating a new String per record
+ */
+public class TradeEventDeserializer implements Deserializer<TradeEvent> {
+
+    private static final byte JSON_OBJECT_START = '{';
+
+    // Power of two; a colliding symbol just replaces the slot
+    private static final int SYMBOL_CACHE_SIZE = 1024;
+
+    // Slots are replaced as a whole, so concurrent readers see either the old or the new symbol
+    private final CachedSymbol[] symbolCache = new CachedSymbol[SYMBOL_CACHE_SIZE];
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Override
+    public TradeEvent deserialize(String topic, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+
+        byte first = data[0];
+        if (first == TradeEventSerializer.VERSION_1) {
+            return fromBinary(data);
+        }
+        if (first == JSON_OBJECT_START) {
+            try {
+                return objectMapper.readValue(data, TradeEvent.class);
+            } catch (IOException e) {
+                throw new SerializationException("Failed to deserialize trade event from JSON", e);
+            }
+        }
+        throw new SerializationException("Unknown trade event wire format version: " + first);
+    }
+
+    private TradeEvent fromBinary(byte[] data) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            buffer.get(); // version
+
+            TradeEvent tradeEvent = new TradeEvent();
+            tradeEvent.setTradeId(new UUID(buffer.getLong(), buffer.getLong()));
+            tradeEvent.setSide(buffer.get() == TradeEventSerializer.SIDE_BUY ? "BUY" : "SELL");
+
+            int symbolLength = buffer.getShort() & 0xFFFF;
+            tradeEvent.setSymbol(symbol(data, buffer.position(), symbolLength));
+            buffer.position(buffer.position() + symbolLength);
+
+            tradeEvent.setQuantity(buffer.getInt());
+            tradeEvent.setPrice(buffer.getDouble());
+            tradeEvent.setTimestamp(buffer.getLong());
+            return tradeEvent;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new SerializationException("Truncated binary trade event", e);
+        }
+    }
+
+    private String symbol(byte[] data, int offset, int length) {
+        if (offset + length > data.length) {
+            throw new IndexOutOfBoundsException("Symbol exceeds record");
+        }
+        int hash = 1;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + data[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & (SYMBOL_CACHE_SIZE - 1);
+
+        CachedSymbol cached = symbolCache[slot];
+        if (cached != null && Arrays.equals(cached.bytes(), 0, cached.bytes().length, data, offset, offset + length)) {
+            return cached.symbol();
+        }
+        String symbol = new String(data, offset, length, StandardCharsets.UTF_8);
+        symbolCache[slot] = new CachedSymbol(Arrays.copyOfRange(data, offset, offset + length), symbol);
+        return symbol;
+    }
+
+    private record CachedSymbol(byte[] bytes, String symbol) {
+    }
+}
@@ -0,0 +1,98 @@
+package com.trading.kafka;
+
+import com.trading.model.TradeEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Kafka serializer for TradeEvent with a compact fixed binary layout
+ *
+ * Layout (big-endian), version 1:
+ * version (1) | tradeId msb (8) | tradeId lsb (8) | side (1) | symbol length (2) | symbol UTF-8 (n)
+ * | quantity (4) | price (8, IEEE double) | timestamp (8, epoch millis)
+ *
+ * Set trade.event.wire.format=json to keep writing JSON during a mixed-version rollout
+ * (TradeEventDeserializer reads both). Events that the binary layout cannot represent
+ * exactly (e.g. a side other than BUY/SELL) are always written as JSON.
+ * JSON is written by Spring's JsonSerializer, including the __TypeId__ header that consumers
+ * still on Spring's JsonDeserializer need to pick the target type.
+ */
+public class TradeEventSerializer implements Serializer<TradeEvent> {
+
+    public static final String WIRE_FORMAT_CONFIG = "trade.event.wire.format";
+    public static final String WIRE_FORMAT_BINARY = "binary";
+    public static final String WIRE_FORMAT_JSON = "json";
+
+    static final byte VERSION_1 = 1;
+    static final byte SIDE_BUY = 0;
+    static final byte SIDE_SELL = 1;
+
+    // version + uuid + side + symbol length + quantity + price + timestamp
+    private static final int FIXED_SIZE = 1 + 16 + 1 + 2 + 4 + 8 + 8;
+
+    private final JsonSerializer<TradeEvent> jsonSerializer = new JsonSerializer<>();
+
+    private boolean binary = true;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object format = configs.get(WIRE_FORMAT_CONFIG);
+        if (format != null) {
+            binary = !WIRE_FORMAT_JSON.equalsIgnoreCase(format.toString());
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, TradeEvent tradeEvent) {
+        return serialize(topic, null, tradeEvent);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, TradeEvent tradeEvent) {
+        if (tradeEvent == null) {
+            return null;
+        }
+        if (binary && isBinaryEncodable(tradeEvent)) {
+            return toBinary(tradeEvent);
+        }
+        return headers != null
+            ? jsonSerializer.serialize(topic, headers, tradeEvent)
+            : jsonSerializer.serialize(topic, tradeEvent);
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+
+    private boolean isBinaryEncodable(TradeEvent tradeEvent) {
+        return tradeEvent.getTradeId() != null
+            && tradeEvent.getSymbol() != null
+            && ("BUY".equals(tradeEvent.getSide()) || "SELL".equals(tradeEvent.getSide()));
+    }
+
+    private byte[] toBinary(TradeEvent tradeEvent) {
+        byte[] symbol = tradeEvent.getSymbol().getBytes(StandardCharsets.UTF_8);
+        if (symbol.length > 0xFFFF) {
+            throw new SerializationException("Symbol too long: " + symbol.length + " bytes");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_SIZE + symbol.length);
+        buffer.put(VERSION_1);
+        buffer.putLong(tradeEvent.getTradeId().getMostSignificantBits());
+        buffer.putLong(tradeEvent.getTradeId().getLeastSignificantBits());
+        buffer.put("BUY".equals(tradeEvent.getSide()) ? SIDE_BUY : SIDE_SELL);
+        buffer.putShort((short) symbol.length);
+        buffer.put(symbol);
+        buffer.putInt(tradeEvent.getQuantity());
+        buffer.putDouble(tradeEvent.getPrice());
+        buffer.putLong(tradeEvent.getTimestamp());
+        return buffer.array();
+    }
+}
@@ -0,0 +1,12 @@
+package com.trading.kafka;
+
+/**
+ * Thrown when persisting trades failed after their positions were applied to Ignite
+ * Trades forwarded because of it carry the positions-applied header (see TradeConsumer)
+ */
+public class TradePersistenceException extends RuntimeException {
+
+    public TradePersistenceException(Throwable cause) {
+        super("Persisting trades failed after their positions were applied", cause);
+    }
+}
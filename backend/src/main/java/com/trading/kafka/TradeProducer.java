@@ -1,19 +1,29 @@
 package com.trading.kafka;
 
+import com.trading.metrics.TradeMetrics;
 import com.trading.model.TradeEvent;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
 
 /**
  * Kafka producer for publishing trade events
  * Publishes trade orders to trade_orders topic for async processing
+ * 
+ * Admission control: every send holds a permit until the broker acknowledges or fails it.
+ * When max-in-flight sends are outstanding, new trades are rejected right away with
+ * ProducerSaturatedException instead of filling the producer buffer and blocking request
+ * threads for up to max.block.ms
  */
 @Service
 public class TradeProducer {
@@ -24,23 +34,105 @@ public class TradeProducer {
     @Autowired
     private KafkaTemplate<String, TradeEvent> kafkaTemplate;
     
+    @Autowired
+    private TradeMetrics tradeMetrics;
+    
+    @Value("${trading.trade.admission.max-in-flight}")
+    private int maxInFlight;
+    
+    @Value("${trading.trade.batch-max-size}")
+    private int batchMaxSize;
+    
+    private Semaphore permits;
+    
+    @PostConstruct
+    public void init() {
+        // A batch larger than max-in-flight could never be admitted and would get 429 on every retry
+        if (maxInFlight < batchMaxSize) {
+            throw new IllegalStateException("trading.trade.admission.max-in-flight (" + maxInFlight +
+                ") must not be below trading.trade.batch-max-size (" + batchMaxSize + ")");
+        }
+        permits = new Semaphore(maxInFlight);
+        tradeMetrics.registerProducerInFlight(this::getInFlight, maxInFlight);
+    }
+    
+    /**
+     * Sends published but not yet acknowledged or failed
+     */
+    public int getInFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+    
     /**
      * Publishes trade event to Kafka topic
      * This is async - consumer will process it
+     * Keyed by symbol so all trades for a symbol stay ordered on one partition
+     * Returns the send future so callers can wait for the broker acknowledgement
+     * 
+     * @throws ProducerSaturatedException if max-in-flight sends are outstanding (nothing is sent)
+     */
+    public CompletableFuture<SendResult<String, TradeEvent>> publishTrade(TradeEvent tradeEvent) {
+        acquire(1);
+        return send(tradeEvent);
+    }
+    
+    /**
+     * Publishes a batch of trade events, admitted all-or-nothing
+     * A send that fails immediately (e.g. serialization) is returned as a failed future
+     * 
+     * @throws ProducerSaturatedException if the batch does not fit in the remaining in-flight sends
+     */
+    public List<CompletableFuture<SendResult<String, TradeEvent>>> publishTrades(List<TradeEvent> tradeEvents) {
+        acquire(tradeEvents.size());
+        List<CompletableFuture<SendResult<String, TradeEvent>>> futures = new ArrayList<>(tradeEvents.size());
+        for (TradeEvent tradeEvent : tradeEvents) {
+            try {
+                futures.add(send(tradeEvent));
+            } catch (RuntimeException e) {
+                futures.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        return futures;
+    }
+    
+    private void acquire(int count) {
+        if (count > 0 && !permits.tryAcquire(count)) {
+            tradeMetrics.recordProducerRejected(count);
+            throw new ProducerSaturatedException(count, getInFlight(), maxInFlight);
+        }
+    }
+    
+    /**
+     * Send with an already acquired permit, released when the send completes
      */
-    public void publishTrade(TradeEvent tradeEvent) {
-        logger.info("Publishing trade event: {}", tradeEvent);
+    private CompletableFuture<SendResult<String, TradeEvent>> send(TradeEvent tradeEvent) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Publishing trade event: {}", tradeEvent);
+        }
         
-        CompletableFuture<SendResult<String, TradeEvent>> future = 
-            kafkaTemplate.send(TOPIC, tradeEvent.getTradeId().toString(), tradeEvent);
+        long sentAt = System.nanoTime();
+        CompletableFuture<SendResult<String, TradeEvent>> future;
+        try {
+            future = kafkaTemplate.send(TOPIC, tradeEvent.getSymbol(), tradeEvent);
+        } catch (RuntimeException e) {
+            permits.release();
+            tradeMetrics.recordProducerAck(System.nanoTime() - sentAt, false);
+            logger.error("Failed to publish trade event", e);
+            throw e;
+        }
         
         future.whenComplete((result, ex) -> {
+            permits.release();
+            tradeMetrics.recordProducerAck(System.nanoTime() - sentAt, ex == null);
             if (ex == null) {
-                logger.info("Trade event published successfully: {}", result.getRecordMetadata());
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Trade event published successfully: {}", result.getRecordMetadata());
+                }
             } else {
                 logger.error("Failed to publish trade event", ex);
             }
         });
+        
+        return future;
     }
 }
-
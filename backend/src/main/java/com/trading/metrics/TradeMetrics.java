@@ -0,0 +1,156 @@
+package com.trading.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Micrometer meters for the trade pipeline (exposed on /actuator/prometheus)
+ *
+ * Timers publish a percentile histogram (Prometheus buckets) plus client-side p50/p99/p999
+ * computed from Micrometer's time-windowed HDR-style histograms, so recording stays cheap.
+ * Histograms start at 10 microseconds because near-cache reads and entry processors finish well under 1 ms.
+ * Kafka consumer lag comes from the Kafka client metrics Spring Boot binds automatically
+ * (kafka_consumer_fetch_manager_records_lag_max).
+ */
+@Component
+public class TradeMetrics {
+
+    private static final double[] PERCENTILES = { 0.5, 0.99, 0.999 };
+
+    // Symbols past trading.metrics.max-symbols share this tag value
+    static final String OTHER_SYMBOL = "other";
+
+    private final MeterRegistry registry;
+
+    private final Timer producerAckSuccess;
+    private final Timer producerAckFailure;
+    private final Timer endToEnd;
+    private final Timer igniteUpdate;
+    private final Timer repositorySave;
+    private final Counter producerRejected;
+    private final Counter priceTicks;
+    private final Counter dedupEarlyRotations;
+    private final Counter priceMarks;
+
+    // Per-symbol counters are cached so the hot path does not rebuild meter ids
+    // Symbols come from user input, so at most maxSymbols get their own counter
+    private final Map<String, Counter> tradesBySymbol = new ConcurrentHashMap<>();
+    private final int maxSymbols;
+    private final Counter tradesOtherSymbols;
+
+    public TradeMetrics(MeterRegistry registry, @Value("${trading.metrics.max-symbols}") int maxSymbols) {
+        this.registry = registry;
+        this.maxSymbols = maxSymbols;
+
+        producerAckSuccess = timer("trading.producer.send", "Time from Kafka send to broker acknowledgement",
+            "result", "success");
+        producerAckFailure = timer("trading.producer.send", "Time from Kafka send to broker acknowledgement",
+            "result", "failure");
+        endToEnd = timer("trading.trade.end_to_end", "Time from trade placement to persistence in PostgreSQL");
+        igniteUpdate = timer("trading.ignite.update", "Ignite position update latency per call");
+        repositorySave = timer("trading.repository.save", "PostgreSQL batch persistence latency");
+        producerRejected = Counter.builder("trading.producer.rejected")
+            .description("Trades rejected because the producer had max-in-flight sends outstanding")
+            .register(registry);
+        dedupEarlyRotations = Counter.builder("trading.dedup.early_rotations")
+            .description("Local dedup generations rotated because they reached max-local-ids")
+            .register(registry);
+        priceTicks = Counter.builder("trading.prices.ticks")
+            .description("Market price ticks consumed")
+            .register(registry);
+        priceMarks = Counter.builder("trading.prices.marks")
+            .description("Symbols marked to market (ticks conflated per symbol and poll)")
+            .register(registry);
+        tradesOtherSymbols = tradesCounter(OTHER_SYMBOL);
+    }
+
+    private Timer timer(String name, String description, String... tags) {
+        return Timer.builder(name)
+            .description(description)
+            .tags(tags)
+            .publishPercentileHistogram()
+            .publishPercentiles(PERCENTILES)
+            .minimumExpectedValue(Duration.ofNanos(10_000))
+            .maximumExpectedValue(Duration.ofSeconds(30))
+            .register(registry);
+    }
+
+    public void recordProducerAck(long elapsedNanos, boolean success) {
+        (success ? producerAckSuccess : producerAckFailure).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gauges for unacknowledged producer sends and their limit
+     */
+    public void registerProducerInFlight(IntSupplier inFlight, int maxInFlight) {
+        Gauge.builder("trading.producer.in_flight", inFlight::getAsInt)
+            .description("Trade sends waiting for a broker acknowledgement")
+            .register(registry);
+        Gauge.builder("trading.producer.in_flight.max", () -> maxInFlight)
+            .description("Max trade sends in flight before new trades are rejected")
+            .register(registry);
+    }
+
+    public void recordProducerRejected(int trades) {
+        producerRejected.increment(trades);
+    }
+
+    public void recordIgniteUpdate(long elapsedNanos) {
+        igniteUpdate.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gauge for the tradeIds held by the local dedup generations
+     */
+    public void registerDedupLocalIds(IntSupplier localIds) {
+        Gauge.builder("trading.dedup.local_ids", localIds::getAsInt)
+            .description("Trade ids held in the local dedup generations")
+            .register(registry);
+    }
+
+    public void recordDedupEarlyRotation() {
+        dedupEarlyRotations.increment();
+    }
+
+    public void recordPriceTicks(int ticks, int marks) {
+        priceTicks.increment(ticks);
+        priceMarks.increment(marks);
+    }
+
+    public void recordRepositorySave(long elapsedNanos) {
+        repositorySave.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record a processed trade: end-to-end latency from its placement timestamp, and the per-symbol rate
+     * Once maxSymbols symbols have a counter, new ones are counted under symbol="other"
+     * (concurrent first trades may add a few counters past the limit)
+     */
+    public void recordTradeProcessed(String symbol, long placedAtMillis, long nowMillis) {
+        endToEnd.record(Math.max(0, nowMillis - placedAtMillis), TimeUnit.MILLISECONDS);
+        Counter counter = tradesBySymbol.get(symbol);
+        if (counter == null) {
+            counter = tradesBySymbol.size() < maxSymbols
+                ? tradesBySymbol.computeIfAbsent(symbol, this::tradesCounter)
+                : tradesOtherSymbols;
+        }
+        counter.increment();
+    }
+
+    private Counter tradesCounter(String symbol) {
+        return Counter.builder("trading.trades")
+            .description("Trades processed per symbol")
+            .tag("symbol", symbol)
+            .register(registry);
+    }
+}
@@ -0,0 +1,56 @@
+package com.trading.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Bucket sizes of the OHLCV rollups, each stored in its own table
+ * Each interval is rolled up from the next finer one
+ */
+public enum BarInterval {
+    ONE_MINUTE("1m", ChronoUnit.MINUTES, "trade_bars_1m"),
+    ONE_HOUR("1h", ChronoUnit.HOURS, "trade_bars_1h"),
+    ONE_DAY("1d", ChronoUnit.DAYS, "trade_bars_1d");
+
+    private final String code;
+    private final ChronoUnit unit;
+    private final String tableName;
+
+    BarInterval(String code, ChronoUnit unit, String tableName) {
+        this.code = code;
+        this.unit = unit;
+        this.tableName = tableName;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public Duration getDuration() {
+        return unit.getDuration();
+    }
+
+    /**
+     * Start of the bucket containing the given time
+     */
+    public LocalDateTime bucketStart(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    /**
+     * Parse 1m / 1h / 1d
+     */
+    public static BarInterval fromCode(String code) {
+        for (BarInterval interval : values()) {
+            if (interval.code.equalsIgnoreCase(code)) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("Unknown bar interval: " + code);
+    }
+}
@@ -0,0 +1,24 @@
+package com.trading.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-order result of a batch trade submission
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTradeResult {
+    private int index; // Position of the order in the submitted array
+    private Status status;
+    private TradeEvent trade; // Set when the order was published
+    private String error; // Set when the order was rejected or failed
+
+    public enum Status {
+        ACCEPTED, // Acknowledged by Kafka
+        REJECTED, // Failed validation, not published
+        FAILED // Publishing to Kafka failed
+    }
+}
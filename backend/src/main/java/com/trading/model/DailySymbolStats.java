@@ -0,0 +1,22 @@
+package com.trading.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Per-day, per-symbol trade aggregate
+ * Maintained incrementally by the consumer in the daily_symbol_stats table
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySymbolStats {
+    private LocalDate tradeDate;
+    private String symbol;
+    private long totalQuantity; // BUY negative, SELL positive
+    private double totalPnl; // BUY negative, SELL positive
+    private long tradeCount;
+}
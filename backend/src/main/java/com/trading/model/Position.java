@@ -9,6 +9,10 @@ import java.io.Serializable;
 /**
  * Position model for Ignite cache
  * Tracks real-time position state per symbol
+ *
+ * pnl is the net cash flow of all trades; realizedPnl and unrealizedPnl split it by average cost,
+ * with the open holding (-netQuantity) marked to the last price from the market_prices feed.
+ * markPrice and unrealizedPnl are null until the symbol has had a price tick since it first traded.
  */
 @Data
 @NoArgsConstructor
@@ -18,5 +22,9 @@ public class Position implements Serializable {
     
     private Integer netQuantity; // Net position quantity
     private Double pnl; // Profit and Loss
+    private Double avgCost; // Average price of the open holding
+    private Double realizedPnl; // PnL booked by closing trades
+    private Double unrealizedPnl; // Open holding at markPrice minus its cost
+    private Double markPrice; // Last market price
 }
 
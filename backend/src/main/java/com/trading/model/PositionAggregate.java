@@ -0,0 +1,21 @@
+package com.trading.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Positions of all symbols summed from the trades table, together with the Kafka offsets
+ * (next offset per trade_orders partition) that the stored trades correspond to
+ * Both are read from the same database snapshot
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PositionAggregate {
+    private Map<String, PositionTotal> positions;
+    private Map<Integer, Long> offsets;
+    private long tradeCount;
+}
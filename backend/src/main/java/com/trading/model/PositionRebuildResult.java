@@ -0,0 +1,21 @@
+package com.trading.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Outcome of rebuilding the Ignite positions from PostgreSQL
+ * offsets are the next trade_orders offsets per partition the rebuilt positions correspond to
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PositionRebuildResult {
+    private int symbols;
+    private long trades;
+    private Map<Integer, Long> offsets;
+    private long durationMs;
+}
@@ -0,0 +1,20 @@
+package com.trading.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Versioned snapshot of all positions
+ * When the caller already has the current version, unchanged is true and positions is null
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PositionSnapshot {
+    private long version;
+    private boolean unchanged;
+    private Map<String, Position> positions;
+}
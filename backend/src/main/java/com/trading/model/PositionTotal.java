@@ -0,0 +1,22 @@
+package com.trading.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Position of one symbol summed from stored trades
+ * PnL is fixed-point (PnL * PositionUpdateProcessor.PNL_SCALE), like the pnlScaled field in Ignite
+ * costBasisScaled and realizedPnlScaled are the average-cost split of the cash flow (see PositionBook),
+ * found by replaying the fills of open positions in trade order
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PositionTotal {
+    private long netQuantity;
+    private long pnlScaled;
+    private long costBasisScaled;
+    private long realizedPnlScaled;
+    private long tradeCount;
+}
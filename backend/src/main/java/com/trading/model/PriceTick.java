@@ -0,0 +1,22 @@
+package com.trading.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Market price of a symbol, as published on the market_prices topic (JSON, keyed by symbol)
+ * The last tick per symbol is kept in the Ignite market_prices cache
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceTick implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String symbol;
+    private double price;
+    private long timestamp; // Epoch millis at the price source
+}
@@ -29,10 +29,10 @@ public class Trade {
     private String side;
     
     @Column(name = "quantity", nullable = false)
-    private Integer quantity;
+    private int quantity;
     
     @Column(name = "price", nullable = false)
-    private Double price;
+    private double price;
     
     @Column(name = "trade_time", nullable = false)
     private LocalDateTime tradeTime;
@@ -0,0 +1,36 @@
+package com.trading.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * OHLCV bar of one symbol for one time bucket
+ * Maintained incrementally by the consumer in the trade_bars_1m/1h/1d tables
+ * openTime/closeTime are the times of the first and last trade, so bars can be merged in any order
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeBar {
+    private String symbol;
+    private LocalDateTime bucketStart;
+    private double open;
+    private LocalDateTime openTime;
+    private double high;
+    private double low;
+    private double close;
+    private LocalDateTime closeTime;
+    private long volume; // Traded quantity, both sides
+    private double notional; // Sum of quantity * price
+    private long tradeCount;
+
+    /**
+     * Volume-weighted average price
+     */
+    public double getVwap() {
+        return volume > 0 ? notional / volume : 0.0;
+    }
+}
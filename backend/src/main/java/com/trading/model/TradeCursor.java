@@ -0,0 +1,53 @@
+package com.trading.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset pagination cursor over trades ordered by (tradeTime, tradeId) descending
+ * Encoded as an opaque URL-safe string for API clients
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeCursor {
+    private LocalDateTime tradeTime;
+    private UUID tradeId;
+
+    /**
+     * Cursor pointing after the given trade
+     */
+    public static TradeCursor after(Trade trade) {
+        return new TradeCursor(trade.getTradeTime(), trade.getTradeId());
+    }
+
+    public String encode() {
+        String raw = tradeTime + "|" + tradeId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static TradeCursor decode(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = raw.indexOf('|');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        try {
+            return new TradeCursor(
+                LocalDateTime.parse(raw.substring(0, separator)),
+                UUID.fromString(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
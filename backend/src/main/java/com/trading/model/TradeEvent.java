@@ -10,6 +10,7 @@ import java.util.UUID;
 /**
  * Trade event model for Kafka messaging
  * Represents a trade order placed by the user
+ * Numeric fields are primitives so the consumer hot path does not box them
  */
 @Data
 @NoArgsConstructor
@@ -25,12 +26,12 @@ public class TradeEvent {
     private String side; // BUY or SELL
     
     @JsonProperty("quantity")
-    private Integer quantity;
+    private int quantity;
     
     @JsonProperty("price")
-    private Double price;
+    private double price;
     
     @JsonProperty("timestamp")
-    private Long timestamp;
+    private long timestamp;
 }
 
@@ -0,0 +1,122 @@
+package com.trading.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * JDBC repository for the one-time backfill of the aggregate tables from the stored trades
+ * Each backfill runs once per database: completed ones are recorded in aggregate_backfills
+ */
+@Repository
+public class AggregateBackfillRepository {
+
+    public static final String DAILY_SYMBOL_STATS = "daily_symbol_stats";
+    public static final String TRADE_BARS = "trade_bars";
+
+    private static final String IS_INSTALLED_SQL = "SELECT to_regclass('aggregate_backfills') IS NOT NULL";
+
+    // Blocks the consumer's aggregate upserts (not its trade inserts) until the backfill commits,
+    // so trades committed before the lock are in the backfill and later ones are added on top of it
+    private static final String LOCK_SQL = "LOCK TABLE aggregate_backfills, %s IN EXCLUSIVE MODE";
+
+    private static final String IS_COMPLETED_SQL = "SELECT EXISTS (SELECT 1 FROM aggregate_backfills WHERE name = ?)";
+
+    private static final String MARK_COMPLETED_SQL = "INSERT INTO aggregate_backfills (name) VALUES (?)";
+
+    // Rows are recomputed from the trades, replacing what the consumer already added;
+    // rows of days whose partition was dropped are left as they are
+    private static final String BACKFILL_DAILY_SYMBOL_STATS_SQL =
+        "INSERT INTO daily_symbol_stats (trade_date, symbol, total_quantity, total_pnl, trade_count) " +
+        "SELECT DATE(trade_time), symbol, " +
+        "SUM(CASE WHEN side = 'BUY' THEN -quantity ELSE quantity END), " +
+        "SUM(CASE WHEN side = 'BUY' THEN -quantity * price ELSE quantity * price END), " +
+        "COUNT(*) " +
+        "FROM trades GROUP BY DATE(trade_time), symbol " +
+        "ON CONFLICT (trade_date, symbol) DO UPDATE SET " +
+        "total_quantity = EXCLUDED.total_quantity, " +
+        "total_pnl = EXCLUDED.total_pnl, " +
+        "trade_count = EXCLUDED.trade_count";
+
+    private static final String BAR_COLUMNS =
+        "(symbol, bucket_start, open_price, open_time, high_price, low_price, " +
+        "close_price, close_time, volume, notional, trade_count) ";
+
+    private static final String REPLACE_BAR_SQL =
+        "ON CONFLICT (symbol, bucket_start) DO UPDATE SET " +
+        "open_price = EXCLUDED.open_price, open_time = EXCLUDED.open_time, " +
+        "high_price = EXCLUDED.high_price, low_price = EXCLUDED.low_price, " +
+        "close_price = EXCLUDED.close_price, close_time = EXCLUDED.close_time, " +
+        "volume = EXCLUDED.volume, notional = EXCLUDED.notional, trade_count = EXCLUDED.trade_count";
+
+    private static final String BACKFILL_MINUTE_BARS_SQL =
+        "INSERT INTO trade_bars_1m " + BAR_COLUMNS +
+        "SELECT symbol, date_trunc('minute', trade_time), " +
+        "(array_agg(price ORDER BY trade_time, trade_id))[1], MIN(trade_time), " +
+        "MAX(price), MIN(price), " +
+        "(array_agg(price ORDER BY trade_time DESC, trade_id DESC))[1], MAX(trade_time), " +
+        "SUM(quantity), SUM(quantity * price), COUNT(*) " +
+        "FROM trades GROUP BY symbol, date_trunc('minute', trade_time) " +
+        REPLACE_BAR_SQL;
+
+    // Target table, date_trunc unit, source table (the next finer interval)
+    private static final String BACKFILL_ROLLUP_BARS_SQL =
+        "INSERT INTO %1$s " + BAR_COLUMNS +
+        "SELECT symbol, date_trunc('%2$s', bucket_start), " +
+        "(array_agg(open_price ORDER BY open_time))[1], MIN(open_time), " +
+        "MAX(high_price), MIN(low_price), " +
+        "(array_agg(close_price ORDER BY close_time DESC))[1], MAX(close_time), " +
+        "SUM(volume), SUM(notional), SUM(trade_count) " +
+        "FROM %3$s GROUP BY symbol, date_trunc('%2$s', bucket_start) " +
+        REPLACE_BAR_SQL;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Whether the backfill bookkeeping table exists (databases created before it need schema.sql applied)
+     */
+    public boolean isInstalled() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_INSTALLED_SQL, Boolean.class));
+    }
+
+    /**
+     * Fill daily_symbol_stats from the stored trades unless that was already done
+     *
+     * @return whether the backfill ran
+     */
+    @Transactional
+    public boolean backfillDailySymbolStats() {
+        jdbcTemplate.execute(String.format(LOCK_SQL, "daily_symbol_stats"));
+        if (isCompleted(DAILY_SYMBOL_STATS)) {
+            return false;
+        }
+        jdbcTemplate.update(BACKFILL_DAILY_SYMBOL_STATS_SQL);
+        jdbcTemplate.update(MARK_COMPLETED_SQL, DAILY_SYMBOL_STATS);
+        return true;
+    }
+
+    /**
+     * Fill the OHLCV rollups from the stored trades unless that was already done
+     * 1m bars are built from the trades, 1h from 1m and 1d from 1h, like the consumer does
+     *
+     * @return whether the backfill ran
+     */
+    @Transactional
+    public boolean backfillTradeBars() {
+        jdbcTemplate.execute(String.format(LOCK_SQL, "trade_bars_1m, trade_bars_1h, trade_bars_1d"));
+        if (isCompleted(TRADE_BARS)) {
+            return false;
+        }
+        jdbcTemplate.update(BACKFILL_MINUTE_BARS_SQL);
+        jdbcTemplate.update(String.format(BACKFILL_ROLLUP_BARS_SQL, "trade_bars_1h", "hour", "trade_bars_1m"));
+        jdbcTemplate.update(String.format(BACKFILL_ROLLUP_BARS_SQL, "trade_bars_1d", "day", "trade_bars_1h"));
+        jdbcTemplate.update(MARK_COMPLETED_SQL, TRADE_BARS);
+        return true;
+    }
+
+    private boolean isCompleted(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_COMPLETED_SQL, Boolean.class, name));
+    }
+}
@@ -0,0 +1,62 @@
+package com.trading.repository;
+
+import com.trading.model.DailySymbolStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * JDBC repository for the daily_symbol_stats aggregate table
+ */
+@Repository
+public class DailySymbolStatsRepository {
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO daily_symbol_stats (trade_date, symbol, total_quantity, total_pnl, trade_count) " +
+        "VALUES (?, ?, ?, ?, ?) " +
+        "ON CONFLICT (trade_date, symbol) DO UPDATE SET " +
+        "total_quantity = daily_symbol_stats.total_quantity + EXCLUDED.total_quantity, " +
+        "total_pnl = daily_symbol_stats.total_pnl + EXCLUDED.total_pnl, " +
+        "trade_count = daily_symbol_stats.trade_count + EXCLUDED.trade_count";
+
+    private static final String FIND_BY_DATE_SQL =
+        "SELECT trade_date, symbol, total_quantity, total_pnl, trade_count " +
+        "FROM daily_symbol_stats WHERE trade_date = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds the given deltas to the stored aggregates (creating rows as needed)
+     * Callers should pass deltas in a stable order to avoid lock-order deadlocks
+     */
+    public void addAll(List<DailySymbolStats> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(UPSERT_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setObject(1, delta.getTradeDate());
+            ps.setString(2, delta.getSymbol());
+            ps.setLong(3, delta.getTotalQuantity());
+            ps.setDouble(4, delta.getTotalPnl());
+            ps.setLong(5, delta.getTradeCount());
+        });
+    }
+
+    /**
+     * Get aggregates for all symbols traded on the given date
+     */
+    public List<DailySymbolStats> findByDate(LocalDate date) {
+        return jdbcTemplate.query(FIND_BY_DATE_SQL, (rs, rowNum) -> new DailySymbolStats(
+            rs.getObject("trade_date", LocalDate.class),
+            rs.getString("symbol"),
+            rs.getLong("total_quantity"),
+            rs.getDouble("total_pnl"),
+            rs.getLong("trade_count")
+        ), date);
+    }
+}
@@ -0,0 +1,299 @@
+package com.trading.repository;
+
+import com.trading.model.PositionAggregate;
+import com.trading.model.PositionTotal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Sums positions per symbol straight from the trades table, in parallel
+ *
+ * A leader transaction exports its snapshot (pg_export_snapshot) and reads the stored Kafka offsets;
+ * worker transactions import the same snapshot and aggregate one day (one partition) each,
+ * so the parallel sums and the offsets describe exactly the same set of trades
+ * even while other instances keep inserting
+ *
+ * The average-cost split depends on the order of fills, so positions that are still open are then
+ * replayed fill by fill in trade order (trade_time, trade_id) in the same snapshot, with the symbols
+ * spread over the workers. Flat positions need no replay: their whole cash flow is realized.
+ */
+@Repository
+public class PositionAggregateRepository {
+
+    private static final String TRADE_DATES_SQL =
+        "SELECT MIN(trade_time), MAX(trade_time) FROM trades";
+
+    // PnL per trade is signed quantity * round(price * PNL_SCALE), the same arithmetic as PositionEngine
+    private static final String AGGREGATE_DAY_SQL =
+        "SELECT symbol, " +
+        "SUM(CASE WHEN side = 'BUY' THEN -quantity ELSE quantity END) AS net_quantity, " +
+        "SUM(CASE WHEN side = 'BUY' THEN -quantity ELSE quantity END::BIGINT " +
+        "* FLOOR(price * ? + 0.5)::BIGINT) AS pnl_scaled, " +
+        "COUNT(*) AS trade_count " +
+        "FROM trades WHERE trade_time >= ? AND trade_time < ? GROUP BY symbol";
+
+    private static final String REPLAY_FILLS_SQL =
+        "SELECT symbol, CASE WHEN side = 'BUY' THEN -quantity ELSE quantity END AS signed_quantity, " +
+        "FLOOR(price * ? + 0.5)::BIGINT AS price_scaled " +
+        "FROM trades WHERE symbol = ANY (?) ORDER BY symbol, trade_time, trade_id";
+
+    // Rows fetched per round trip while replaying fills through a server-side cursor
+    private static final int REPLAY_FETCH_SIZE = 10_000;
+
+    private static final String FIND_OFFSETS_SQL =
+        "SELECT partition_id, next_offset FROM trade_consumer_offsets WHERE group_id = ? AND topic = ?";
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * Aggregate all stored trades with up to parallelism concurrent queries
+     * replays supplies a fresh PositionReplay per open position
+     */
+    public PositionAggregate aggregate(String groupId, String topic, long pnlScale, int parallelism,
+                                       Supplier<PositionReplay> replays)
+            throws SQLException, InterruptedException {
+        try (Connection leader = dataSource.getConnection()) {
+            boolean autoCommit = leader.getAutoCommit();
+            int isolation = leader.getTransactionIsolation();
+            leader.setAutoCommit(false);
+            leader.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                String snapshotId;
+                try (Statement statement = leader.createStatement();
+                     ResultSet rs = statement.executeQuery("SELECT pg_export_snapshot()")) {
+                    rs.next();
+                    snapshotId = rs.getString(1);
+                }
+
+                Map<Integer, Long> offsets = findOffsets(leader, groupId, topic);
+                List<LocalDate> days = findTradeDays(leader);
+                Map<String, PositionTotal> positions = aggregateDays(snapshotId, days, pnlScale, parallelism);
+                replayOpenPositions(snapshotId, positions, pnlScale, parallelism, replays);
+
+                long tradeCount = 0;
+                for (PositionTotal total : positions.values()) {
+                    tradeCount += total.getTradeCount();
+                }
+                return new PositionAggregate(positions, offsets, tradeCount);
+            } finally {
+                // Read-only: ending the transaction releases the exported snapshot
+                leader.rollback();
+                leader.setTransactionIsolation(isolation);
+                leader.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private Map<String, PositionTotal> aggregateDays(String snapshotId, List<LocalDate> days,
+                                                     long pnlScale, int parallelism)
+            throws SQLException, InterruptedException {
+        List<Callable<Map<String, PositionTotal>>> tasks = new ArrayList<>(days.size());
+        for (LocalDate day : days) {
+            tasks.add(() -> inSnapshot(snapshotId, connection -> aggregateDay(connection, day, pnlScale)));
+        }
+
+        Map<String, PositionTotal> positions = new HashMap<>();
+        for (Map<String, PositionTotal> dayTotals : runAll(tasks, parallelism)) {
+            for (Map.Entry<String, PositionTotal> entry : dayTotals.entrySet()) {
+                PositionTotal dayTotal = entry.getValue();
+                PositionTotal total = positions.computeIfAbsent(entry.getKey(), symbol -> new PositionTotal());
+                total.setNetQuantity(total.getNetQuantity() + dayTotal.getNetQuantity());
+                total.setPnlScaled(Math.addExact(total.getPnlScaled(), dayTotal.getPnlScaled()));
+                total.setTradeCount(total.getTradeCount() + dayTotal.getTradeCount());
+            }
+        }
+        return positions;
+    }
+
+    private Map<String, PositionTotal> aggregateDay(Connection connection, LocalDate day, long pnlScale)
+            throws SQLException {
+        Map<String, PositionTotal> totals = new HashMap<>();
+        try (PreparedStatement ps = connection.prepareStatement(AGGREGATE_DAY_SQL)) {
+            ps.setLong(1, pnlScale);
+            ps.setTimestamp(2, Timestamp.valueOf(day.atStartOfDay()));
+            ps.setTimestamp(3, Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    PositionTotal total = new PositionTotal();
+                    total.setNetQuantity(rs.getLong("net_quantity"));
+                    total.setPnlScaled(rs.getBigDecimal("pnl_scaled").longValueExact());
+                    total.setTradeCount(rs.getLong("trade_count"));
+                    totals.put(rs.getString("symbol"), total);
+                }
+            }
+        }
+        return totals;
+    }
+
+    private void replayOpenPositions(String snapshotId, Map<String, PositionTotal> positions, long pnlScale,
+                                     int parallelism, Supplier<PositionReplay> replays)
+            throws SQLException, InterruptedException {
+        List<String> open = new ArrayList<>();
+        for (Map.Entry<String, PositionTotal> entry : positions.entrySet()) {
+            PositionTotal total = entry.getValue();
+            if (total.getNetQuantity() == 0) {
+                total.setRealizedPnlScaled(total.getPnlScaled());
+            } else {
+                open.add(entry.getKey());
+            }
+        }
+
+        if (open.isEmpty()) {
+            return;
+        }
+
+        int workers = Math.max(1, Math.min(parallelism, open.size()));
+        List<Callable<Void>> tasks = new ArrayList<>(workers);
+        for (int worker = 0; worker < workers; worker++) {
+            List<String> symbols = new ArrayList<>();
+            for (int i = worker; i < open.size(); i += workers) {
+                symbols.add(open.get(i));
+            }
+            // Each symbol is completed by exactly one worker; the map itself is only read
+            tasks.add(() -> inSnapshot(snapshotId, connection -> {
+                replayFills(connection, symbols, positions, pnlScale, replays);
+                return null;
+            }));
+        }
+        runAll(tasks, parallelism);
+    }
+
+    private void replayFills(Connection connection, List<String> symbols, Map<String, PositionTotal> positions,
+                             long pnlScale, Supplier<PositionReplay> replays) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(REPLAY_FILLS_SQL)) {
+            ps.setFetchSize(REPLAY_FETCH_SIZE);
+            ps.setLong(1, pnlScale);
+            ps.setArray(2, connection.createArrayOf("varchar", symbols.toArray()));
+            try (ResultSet rs = ps.executeQuery()) {
+                String symbol = null;
+                PositionReplay replay = null;
+                while (rs.next()) {
+                    String rowSymbol = rs.getString("symbol");
+                    if (!rowSymbol.equals(symbol)) {
+                        if (replay != null) {
+                            replay.complete(positions.get(symbol));
+                        }
+                        symbol = rowSymbol;
+                        replay = replays.get();
+                    }
+                    replay.fill(rs.getInt("signed_quantity"), rs.getLong("price_scaled"));
+                }
+                if (replay != null) {
+                    replay.complete(positions.get(symbol));
+                }
+            }
+        }
+    }
+
+    /**
+     * Run work in a read-only transaction on the leader's exported snapshot
+     */
+    private <T> T inSnapshot(String snapshotId, SnapshotWork<T> work) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            int isolation = connection.getTransactionIsolation();
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                // Must be the first statement of the transaction
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET TRANSACTION SNAPSHOT '" + snapshotId + "'");
+                }
+                return work.run(connection);
+            } finally {
+                connection.rollback();
+                connection.setTransactionIsolation(isolation);
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    /**
+     * Run the tasks with up to parallelism threads and return their results in order
+     */
+    private <T> List<T> runAll(List<Callable<T>> tasks, int parallelism) throws SQLException, InterruptedException {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (tasks.isEmpty()) {
+            return results;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, tasks.size())));
+        try {
+            List<Future<T>> futures = new ArrayList<>(tasks.size());
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new IllegalStateException("Position aggregation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    private Map<Integer, Long> findOffsets(Connection connection, String groupId, String topic) throws SQLException {
+        Map<Integer, Long> offsets = new HashMap<>();
+        try (PreparedStatement ps = connection.prepareStatement(FIND_OFFSETS_SQL)) {
+            ps.setString(1, groupId);
+            ps.setString(2, topic);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    offsets.put(rs.getInt("partition_id"), rs.getLong("next_offset"));
+                }
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Every day between the first and last stored trade (one partition each on a partitioned table)
+     */
+    private List<LocalDate> findTradeDays(Connection connection) throws SQLException {
+        List<LocalDate> days = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(TRADE_DATES_SQL)) {
+            rs.next();
+            Timestamp first = rs.getTimestamp(1);
+            Timestamp last = rs.getTimestamp(2);
+            if (first == null) {
+                return days;
+            }
+            LocalDate lastDay = last.toLocalDateTime().toLocalDate();
+            for (LocalDate day = first.toLocalDateTime().toLocalDate(); !day.isAfter(lastDay); day = day.plusDays(1)) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    @FunctionalInterface
+    private interface SnapshotWork<T> {
+        T run(Connection connection) throws SQLException;
+    }
+}
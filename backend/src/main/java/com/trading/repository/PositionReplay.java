@@ -0,0 +1,20 @@
+package com.trading.repository;
+
+import com.trading.model.PositionTotal;
+
+/**
+ * Receives the stored fills of one open position in trade order (see PositionAggregateRepository)
+ * and works out its average-cost split
+ */
+public interface PositionReplay {
+
+    /**
+     * Apply one fill (signed quantity: BUY negative, SELL positive; price scaled by the aggregation's PnL scale)
+     */
+    void fill(int signedQuantity, long priceScaled);
+
+    /**
+     * Set the cost basis and realized PnL after the last fill on total
+     */
+    void complete(PositionTotal total);
+}
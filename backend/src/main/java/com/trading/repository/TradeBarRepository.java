@@ -0,0 +1,100 @@
+package com.trading.repository;
+
+import com.trading.model.BarInterval;
+import com.trading.model.TradeBar;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC repository for the OHLCV rollup tables (trade_bars_1m, trade_bars_1h, trade_bars_1d)
+ */
+@Repository
+public class TradeBarRepository {
+
+    // Table names come from BarInterval, never from user input
+    private static final String UPSERT_SQL =
+        "INSERT INTO %s AS b (symbol, bucket_start, open_price, open_time, high_price, low_price, " +
+        "close_price, close_time, volume, notional, trade_count) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (symbol, bucket_start) DO UPDATE SET " +
+        "open_price = CASE WHEN EXCLUDED.open_time < b.open_time THEN EXCLUDED.open_price ELSE b.open_price END, " +
+        "open_time = LEAST(b.open_time, EXCLUDED.open_time), " +
+        "high_price = GREATEST(b.high_price, EXCLUDED.high_price), " +
+        "low_price = LEAST(b.low_price, EXCLUDED.low_price), " +
+        "close_price = CASE WHEN EXCLUDED.close_time >= b.close_time THEN EXCLUDED.close_price ELSE b.close_price END, " +
+        "close_time = GREATEST(b.close_time, EXCLUDED.close_time), " +
+        "volume = b.volume + EXCLUDED.volume, " +
+        "notional = b.notional + EXCLUDED.notional, " +
+        "trade_count = b.trade_count + EXCLUDED.trade_count";
+
+    private static final String SELECT_SQL =
+        "SELECT symbol, bucket_start, open_price, open_time, high_price, low_price, " +
+        "close_price, close_time, volume, notional, trade_count " +
+        "FROM %s WHERE bucket_start >= ? AND bucket_start < ?";
+
+    private static final RowMapper<TradeBar> TRADE_BAR_ROW_MAPPER = (rs, rowNum) -> new TradeBar(
+        rs.getString("symbol"),
+        rs.getObject("bucket_start", LocalDateTime.class),
+        rs.getDouble("open_price"),
+        rs.getObject("open_time", LocalDateTime.class),
+        rs.getDouble("high_price"),
+        rs.getDouble("low_price"),
+        rs.getDouble("close_price"),
+        rs.getObject("close_time", LocalDateTime.class),
+        rs.getLong("volume"),
+        rs.getDouble("notional"),
+        rs.getLong("trade_count")
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Merges the given bars into the stored bars (creating rows as needed)
+     * Callers should pass bars in a stable order to avoid lock-order deadlocks
+     */
+    public void addAll(BarInterval interval, List<TradeBar> bars) {
+        if (bars.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(String.format(UPSERT_SQL, interval.getTableName()), bars, bars.size(), (ps, bar) -> {
+            ps.setString(1, bar.getSymbol());
+            ps.setObject(2, bar.getBucketStart());
+            ps.setDouble(3, bar.getOpen());
+            ps.setObject(4, bar.getOpenTime());
+            ps.setDouble(5, bar.getHigh());
+            ps.setDouble(6, bar.getLow());
+            ps.setDouble(7, bar.getClose());
+            ps.setObject(8, bar.getCloseTime());
+            ps.setLong(9, bar.getVolume());
+            ps.setDouble(10, bar.getNotional());
+            ps.setLong(11, bar.getTradeCount());
+        });
+    }
+
+    /**
+     * Get bars with bucket_start in [start, end), ordered by symbol and time
+     *
+     * @param symbol optional symbol filter
+     */
+    public List<TradeBar> findBetween(BarInterval interval, LocalDateTime start, LocalDateTime end, String symbol) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(String.format(SELECT_SQL, interval.getTableName()));
+        params.add(start);
+        params.add(end);
+        if (symbol != null) {
+            sql.append(" AND symbol = ?");
+            params.add(symbol);
+        }
+        sql.append(" ORDER BY symbol, bucket_start");
+
+        return jdbcTemplate.query(sql.toString(), TRADE_BAR_ROW_MAPPER, params.toArray());
+    }
+}
@@ -0,0 +1,158 @@
+package com.trading.repository;
+
+import com.trading.model.Trade;
+import com.trading.model.TradeCursor;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * JDBC repository for bulk trade writes and bounded-memory trade reads
+ * Used by the batch consumer instead of JPA save(), which runs a SELECT before
+ * every INSERT because trade ids are assigned by us
+ */
+@Repository
+public class TradeJdbcRepository {
+
+    private static final String INSERT_TRADE_SQL =
+        "INSERT INTO trades (trade_id, symbol, side, quantity, price, trade_time) " +
+        "VALUES (?, ?, ?, ?, ?, ?) ";
+
+    // Conflict target must match the primary key: partitioned tables include the partition column
+    private static final String PARTITIONED_CONFLICT_SQL = "ON CONFLICT (trade_id, trade_time) DO NOTHING";
+    private static final String UNPARTITIONED_CONFLICT_SQL = "ON CONFLICT (trade_id) DO NOTHING";
+
+    private static final String SELECT_TRADES_SQL =
+        "SELECT trade_id, symbol, side, quantity, price, trade_time FROM trades " +
+        "WHERE trade_time >= ? AND trade_time < ?";
+
+    // Rows fetched per round trip when streaming through a server-side cursor
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private static final RowMapper<Trade> TRADE_ROW_MAPPER = (rs, rowNum) -> new Trade(
+        rs.getObject("trade_id", UUID.class),
+        rs.getString("symbol"),
+        rs.getString("side"),
+        rs.getInt("quantity"),
+        rs.getDouble("price"),
+        rs.getObject("trade_time", LocalDateTime.class)
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TradePartitionRepository tradePartitionRepository;
+
+    private String insertTradeSql;
+
+    /**
+     * Pick the insert for the table layout: databases created before partitioning keep a
+     * trade_id primary key, partitioned ones have (trade_id, trade_time)
+     */
+    @PostConstruct
+    public void init() {
+        insertTradeSql = INSERT_TRADE_SQL + (tradePartitionRepository.isPartitioned()
+            ? PARTITIONED_CONFLICT_SQL
+            : UNPARTITIONED_CONFLICT_SQL);
+    }
+
+    /**
+     * Inserts all trades with a single JDBC batch (one round trip, one commit)
+     * Trades that already exist (redelivered messages) are skipped
+     * On a partitioned table a trade is matched by (trade_id, trade_time); a redelivered trade always
+     * carries the time of its original event, so it still matches, but the same trade_id with a
+     * different time would be stored twice
+     *
+     * @return update count per trade: 1 if inserted, 0 if it already existed
+     */
+    @Transactional
+    public int[] saveAll(List<Trade> trades) {
+        if (trades.isEmpty()) {
+            return new int[0];
+        }
+
+        int[][] counts = jdbcTemplate.batchUpdate(insertTradeSql, trades, trades.size(), (ps, trade) -> {
+            ps.setObject(1, trade.getTradeId());
+            ps.setString(2, trade.getSymbol());
+            ps.setString(3, trade.getSide());
+            ps.setInt(4, trade.getQuantity());
+            ps.setDouble(5, trade.getPrice());
+            ps.setObject(6, trade.getTradeTime());
+        });
+
+        return counts[0];
+    }
+
+    /**
+     * Get one page of trades in [start, end), newest first
+     * Uses keyset pagination on (trade_time, trade_id) so every page is an index range scan
+     *
+     * @param after  cursor of the last trade of the previous page, or null for the first page
+     * @param symbol optional symbol filter
+     * @param side   optional side filter
+     */
+    public List<Trade> findPage(LocalDateTime start, LocalDateTime end, String symbol, String side,
+                                TradeCursor after, int limit) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = filteredQuery(start, end, symbol, side, params);
+        if (after != null) {
+            sql.append(" AND (trade_time, trade_id) < (?, ?)");
+            params.add(after.getTradeTime());
+            params.add(after.getTradeId());
+        }
+        sql.append(" ORDER BY trade_time DESC, trade_id DESC LIMIT ?");
+        params.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), TRADE_ROW_MAPPER, params.toArray());
+    }
+
+    /**
+     * Stream all trades in [start, end), newest first, to the given consumer
+     * Rows are read through a server-side cursor (fetch size + open transaction), so memory stays bounded
+     */
+    @Transactional(readOnly = true)
+    public void streamBetween(LocalDateTime start, LocalDateTime end, String symbol, String side,
+                              Consumer<Trade> consumer) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = filteredQuery(start, end, symbol, side, params);
+        sql.append(" ORDER BY trade_time DESC, trade_id DESC");
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString());
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        }, rs -> {
+            consumer.accept(TRADE_ROW_MAPPER.mapRow(rs, 0));
+        });
+    }
+
+    private StringBuilder filteredQuery(LocalDateTime start, LocalDateTime end, String symbol, String side,
+                                        List<Object> params) {
+        StringBuilder sql = new StringBuilder(SELECT_TRADES_SQL);
+        params.add(start);
+        params.add(end);
+        if (symbol != null) {
+            sql.append(" AND symbol = ?");
+            params.add(symbol);
+        }
+        if (side != null) {
+            sql.append(" AND side = ?");
+            params.add(side);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,62 @@
+package com.trading.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC repository for the Kafka offsets covered by the stored trades (trade_consumer_offsets)
+ * Written in the same transaction as the trade inserts, so the trades table and the offsets
+ * always describe the same point in the topic
+ */
+@Repository
+public class TradeOffsetRepository {
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO trade_consumer_offsets (group_id, topic, partition_id, next_offset) " +
+        "VALUES (?, ?, ?, ?) " +
+        "ON CONFLICT (group_id, topic, partition_id) DO UPDATE SET " +
+        "next_offset = GREATEST(trade_consumer_offsets.next_offset, EXCLUDED.next_offset), " +
+        "updated_at = now()";
+
+    private static final String FIND_SQL =
+        "SELECT partition_id, next_offset FROM trade_consumer_offsets WHERE group_id = ? AND topic = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Record the next offset to consume per partition (offsets never move backwards)
+     */
+    public void saveAll(String groupId, String topic, Map<Integer, Long> nextOffsets) {
+        if (nextOffsets.isEmpty()) {
+            return;
+        }
+
+        // Sorted by partition to avoid lock-order deadlocks between consumers
+        List<Map.Entry<Integer, Long>> entries = new ArrayList<>(nextOffsets.entrySet());
+        entries.sort(Map.Entry.comparingByKey());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setString(1, groupId);
+            ps.setString(2, topic);
+            ps.setInt(3, entry.getKey());
+            ps.setLong(4, entry.getValue());
+        });
+    }
+
+    /**
+     * Get the next offset to consume per partition
+     */
+    public Map<Integer, Long> findAll(String groupId, String topic) {
+        Map<Integer, Long> offsets = new HashMap<>();
+        jdbcTemplate.query(FIND_SQL, rs -> {
+            offsets.put(rs.getInt("partition_id"), rs.getLong("next_offset"));
+        }, groupId, topic);
+        return offsets;
+    }
+}
@@ -0,0 +1,76 @@
+package com.trading.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC repository for managing the daily partitions of the trades table
+ * Partitions are named trades_pYYYYMMDD and cover [day, day + 1)
+ */
+@Repository
+public class TradePartitionRepository {
+
+    private static final String PARTITION_PREFIX = "trades_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final String IS_PARTITIONED_SQL =
+        "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt " +
+        "JOIN pg_class c ON c.oid = pt.partrelid WHERE c.relname = 'trades')";
+
+    private static final String LIST_PARTITIONS_SQL =
+        "SELECT c.relname FROM pg_inherits i " +
+        "JOIN pg_class c ON c.oid = i.inhrelid " +
+        "JOIN pg_class p ON p.oid = i.inhparent " +
+        "WHERE p.relname = 'trades'";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Whether trades is a partitioned table (databases created before partitioning are not)
+     */
+    public boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_PARTITIONED_SQL, Boolean.class));
+    }
+
+    /**
+     * Get the days that currently have a partition
+     */
+    public List<LocalDate> findPartitionDates() {
+        List<LocalDate> dates = new ArrayList<>();
+        for (String name : jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class)) {
+            if (name.startsWith(PARTITION_PREFIX)) {
+                dates.add(LocalDate.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX_FORMAT));
+            }
+        }
+        return dates;
+    }
+
+    /**
+     * Create the partition for a day if it does not exist yet
+     */
+    public void createPartition(LocalDate date) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(date) +
+            " PARTITION OF trades FOR VALUES FROM ('" + date + "') TO ('" + date.plusDays(1) + "')");
+    }
+
+    /**
+     * Detach the partition for a day without blocking concurrent inserts and queries, then drop it
+     * Must run outside a transaction (DETACH ... CONCURRENTLY)
+     */
+    public void dropPartition(LocalDate date) {
+        String name = partitionName(date);
+        jdbcTemplate.execute("ALTER TABLE trades DETACH PARTITION " + name + " CONCURRENTLY");
+        jdbcTemplate.execute("DROP TABLE " + name);
+    }
+
+    private String partitionName(LocalDate date) {
+        return PARTITION_PREFIX + date.format(PARTITION_SUFFIX_FORMAT);
+    }
+}
@@ -6,7 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,27 +17,21 @@ import java.util.UUID;
 public interface TradeRepository extends JpaRepository<Trade, UUID> {
     
     /**
-     * Get all trades for today grouped by symbol
+     * Get all trades in [start, end) grouped by symbol
      * Returns total quantity and PnL per symbol
+     * Half-open timestamp ranges let the planner prune trades partitions and use idx_trades_symbol_time
      */
     @Query("SELECT t.symbol, " +
            "SUM(CASE WHEN t.side = 'BUY' THEN -t.quantity ELSE t.quantity END) as totalQuantity, " +
            "SUM(CASE WHEN t.side = 'BUY' THEN -t.quantity * t.price ELSE t.quantity * t.price END) as totalPnl " +
            "FROM Trade t " +
-           "WHERE DATE(t.tradeTime) = :date " +
+           "WHERE t.tradeTime >= :start AND t.tradeTime < :end " +
            "GROUP BY t.symbol")
-    List<Object[]> getDailyAnalytics(@Param("date") LocalDate date);
+    List<Object[]> getAnalyticsBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
     
     /**
-     * Get all trades for today
+     * Get all trades in [start, end)
      */
-    @Query("SELECT t FROM Trade t WHERE DATE(t.tradeTime) = :date ORDER BY t.tradeTime DESC")
-    List<Trade> findAllByDate(@Param("date") LocalDate date);
+    @Query("SELECT t FROM Trade t WHERE t.tradeTime >= :start AND t.tradeTime < :end ORDER BY t.tradeTime DESC")
+    List<Trade> findAllBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 }
-
-
-
-
-
-
-
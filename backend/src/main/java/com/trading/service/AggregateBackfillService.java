@@ -0,0 +1,40 @@
+package com.trading.service;
+
+import com.trading.repository.AggregateBackfillRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service that fills the aggregate tables from trades stored before the tables existed
+ * Runs on startup, before the consumer starts; every backfill is done once per database,
+ * so later restarts and other backend instances skip it
+ */
+@Service
+public class AggregateBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AggregateBackfillService.class);
+
+    @Autowired
+    private AggregateBackfillRepository aggregateBackfillRepository;
+
+    @PostConstruct
+    public void init() {
+        if (!aggregateBackfillRepository.isInstalled()) {
+            logger.warn("aggregate_backfills table is missing, apply schema.sql to backfill the aggregates");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        if (aggregateBackfillRepository.backfillDailySymbolStats()) {
+            logger.info("Backfilled daily_symbol_stats from stored trades in {} ms", System.currentTimeMillis() - start);
+        }
+
+        start = System.currentTimeMillis();
+        if (aggregateBackfillRepository.backfillTradeBars()) {
+            logger.info("Backfilled trade bars from stored trades in {} ms", System.currentTimeMillis() - start);
+        }
+    }
+}
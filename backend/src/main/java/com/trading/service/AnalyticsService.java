@@ -2,16 +2,26 @@ package com.trading.service;
 
 import com.trading.ignite.PositionService;
 import com.trading.model.AnalyticsResponse;
+import com.trading.model.BarInterval;
+import com.trading.model.DailySymbolStats;
 import com.trading.model.Position;
 import com.trading.model.Trade;
+import com.trading.model.TradeBar;
+import com.trading.model.TradeCursor;
+import com.trading.model.TradePage;
+import com.trading.repository.DailySymbolStatsRepository;
+import com.trading.repository.TradeBarRepository;
+import com.trading.repository.TradeJdbcRepository;
 import com.trading.repository.TradeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Service for analytics operations
@@ -23,6 +33,15 @@ public class AnalyticsService {
     @Autowired
     private TradeRepository tradeRepository;
     
+    @Autowired
+    private TradeJdbcRepository tradeJdbcRepository;
+    
+    @Autowired
+    private DailySymbolStatsRepository dailySymbolStatsRepository;
+    
+    @Autowired
+    private TradeBarRepository tradeBarRepository;
+    
     @Autowired
     private PositionService positionService;
     
@@ -32,18 +51,15 @@ public class AnalyticsService {
      */
     public AnalyticsResponse getDailyAnalytics() {
         LocalDate today = LocalDate.now();
-        List<Object[]> results = tradeRepository.getDailyAnalytics(today);
+        // Read the per-symbol aggregates maintained by the consumer instead of grouping raw trades
+        List<DailySymbolStats> results = dailySymbolStatsRepository.findByDate(today);
         
         Map<String, AnalyticsResponse.SymbolAnalytics> analytics = new HashMap<>();
         
-        for (Object[] row : results) {
-            String symbol = (String) row[0];
-            Long totalQuantity = ((Number) row[1]).longValue();
-            Double totalPnl = ((Number) row[2]).doubleValue();
-            
-            analytics.put(symbol, new AnalyticsResponse.SymbolAnalytics(
-                totalQuantity.intValue(),
-                totalPnl
+        for (DailySymbolStats stats : results) {
+            analytics.put(stats.getSymbol(), new AnalyticsResponse.SymbolAnalytics(
+                (int) stats.getTotalQuantity(),
+                stats.getTotalPnl()
             ));
         }
         
@@ -54,7 +70,43 @@ public class AnalyticsService {
      * Get all trades for today
      */
     public List<Trade> getTradesToday() {
-        return tradeRepository.findAllByDate(LocalDate.now());
+        LocalDate today = LocalDate.now();
+        return tradeRepository.findAllBetween(today.atStartOfDay(), today.plusDays(1).atStartOfDay());
+    }
+    
+    /**
+     * Get one page of today's trades, newest first
+     * Pass the nextCursor of the previous page to continue, or null for the first page
+     */
+    public TradePage getTradesTodayPage(String cursor, int limit, String symbol, String side) {
+        LocalDate today = LocalDate.now();
+        TradeCursor after = cursor != null ? TradeCursor.decode(cursor) : null;
+        
+        List<Trade> trades = tradeJdbcRepository.findPage(
+            today.atStartOfDay(), today.plusDays(1).atStartOfDay(), symbol, side, after, limit);
+        
+        // A full page means there may be more rows after the last trade
+        String nextCursor = trades.size() == limit
+            ? TradeCursor.after(trades.get(trades.size() - 1)).encode()
+            : null;
+        return new TradePage(trades, nextCursor);
+    }
+    
+    /**
+     * Stream all of today's trades, newest first, without loading them into memory
+     */
+    public void streamTradesToday(String symbol, String side, Consumer<Trade> consumer) {
+        LocalDate today = LocalDate.now();
+        tradeJdbcRepository.streamBetween(
+            today.atStartOfDay(), today.plusDays(1).atStartOfDay(), symbol, side, consumer);
+    }
+    
+    /**
+     * Get OHLCV bars of the buckets overlapping [from, to), served from the rollup tables
+     *
+     * @param symbol optional symbol filter
+     */
+    public List<TradeBar> getBars(BarInterval interval, LocalDateTime from, LocalDateTime to, String symbol) {
+        return tradeBarRepository.findBetween(interval, interval.bucketStart(from), to, symbol);
     }
 }
-
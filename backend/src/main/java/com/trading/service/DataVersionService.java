@@ -0,0 +1,208 @@
+package com.trading.service;
+
+import com.trading.ignite.PositionService;
+import com.trading.ignite.TradeChangeFeed;
+import com.trading.model.Position;
+import com.trading.model.Trade;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.cache.Cache;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic versions of the data behind the positions and analytics endpoints, used for ETags
+ *
+ * Position versions are bumped by a ContinuousQuery on the positions cache, trade versions by
+ * TradeChangeFeed once TradeConsumer's batches are committed to PostgreSQL (on any instance).
+ * Both are tracked overall and per symbol in this JVM, so answering If-None-Match never touches
+ * Ignite or PostgreSQL. A version is bumped only after the change is readable, so a response built
+ * after reading version v is never older than v.
+ *
+ * Versions are local to this process; ETags carry a per-process epoch so they never match across
+ * instances or restarts. While a subscription is lost (thin client), every call returns a new version.
+ */
+@Service
+public class DataVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataVersionService.class);
+
+    private static final long RESUBSCRIBE_INTERVAL_MS = 5000;
+
+    @Autowired
+    private PositionService positionService;
+
+    @Autowired
+    private TradeChangeFeed tradeChangeFeed;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong counter = new AtomicLong();
+    private final Versions positions = new Versions();
+    private final Versions trades = new Versions();
+
+    private QueryCursor<Cache.Entry<String, Position>> positionSubscription;
+    private QueryCursor<Cache.Entry<String, Long>> tradeSubscription;
+    private volatile boolean positionsTracked;
+    private volatile boolean tradesTracked;
+    private volatile long lastResubscribeAttempt;
+
+    @PostConstruct
+    public void start() {
+        subscribePositions();
+        subscribeTrades();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        closeQuietly(positionSubscription);
+        closeQuietly(tradeSubscription);
+    }
+
+    public long getPositionsVersion() {
+        return ensureTracked() ? positions.get() : counter.incrementAndGet();
+    }
+
+    public long getPositionVersion(String symbol) {
+        return ensureTracked() ? positions.get(symbol) : counter.incrementAndGet();
+    }
+
+    public long getTradesVersion() {
+        return ensureTracked() ? trades.get() : counter.incrementAndGet();
+    }
+
+    public long getTradesVersion(String symbol) {
+        return ensureTracked() ? trades.get(symbol) : counter.incrementAndGet();
+    }
+
+    /**
+     * Strong ETag for a version, optionally qualified (e.g. with the date of a "today" view)
+     */
+    public String etag(long version, String qualifier) {
+        return "\"" + epoch + "-" + version + (qualifier != null ? "-" + qualifier : "") + "\"";
+    }
+
+    /**
+     * Invalidate all position versions (after the positions cache was replaced, which removes
+     * symbols without notifying the subscription)
+     */
+    public void positionsReplaced() {
+        positions.bumpAll();
+    }
+
+    /**
+     * Announce persisted symbols to all instances once the consumer's transaction commits
+     */
+    @TransactionalEventListener
+    public void onTradesPersisted(TradesPersistedEvent event) {
+        Set<String> symbols = new HashSet<>();
+        for (Trade trade : event.getTrades()) {
+            symbols.add(trade.getSymbol());
+        }
+        try {
+            tradeChangeFeed.publish(symbols);
+        } catch (RuntimeException e) {
+            // Other instances keep serving their cached version until the next change
+            logger.warn("Publishing trade changes failed", e);
+            trades.bumpAll();
+        }
+    }
+
+    private boolean ensureTracked() {
+        if (positionsTracked && tradesTracked) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastResubscribeAttempt >= RESUBSCRIBE_INTERVAL_MS) {
+            synchronized (this) {
+                if (now - lastResubscribeAttempt >= RESUBSCRIBE_INTERVAL_MS) {
+                    lastResubscribeAttempt = now;
+                    if (!positionsTracked) {
+                        subscribePositions();
+                    }
+                    if (!tradesTracked) {
+                        subscribeTrades();
+                    }
+                }
+            }
+        }
+        return positionsTracked && tradesTracked;
+    }
+
+    private synchronized void subscribePositions() {
+        closeQuietly(positionSubscription);
+        try {
+            positionSubscription = positionService.subscribe(
+                (symbol, position) -> positions.bump(symbol),
+                () -> positionsTracked = false);
+            // Changes may have been missed while unsubscribed
+            positions.bumpAll();
+            positionsTracked = true;
+        } catch (RuntimeException e) {
+            logger.warn("Subscribing to position changes failed", e);
+        }
+    }
+
+    private synchronized void subscribeTrades() {
+        closeQuietly(tradeSubscription);
+        try {
+            tradeSubscription = tradeChangeFeed.subscribe(trades::bump, () -> tradesTracked = false);
+            trades.bumpAll();
+            tradesTracked = true;
+        } catch (RuntimeException e) {
+            logger.warn("Subscribing to trade changes failed", e);
+        }
+    }
+
+    private void closeQuietly(QueryCursor<?> subscription) {
+        if (subscription == null) {
+            return;
+        }
+        try {
+            subscription.close();
+        } catch (RuntimeException e) {
+            logger.debug("Closing lost subscription failed", e);
+        }
+    }
+
+    /**
+     * Overall and per-symbol versions drawn from the shared counter
+     * A symbol's version is the later of its own last change and the last bumpAll
+     */
+    private class Versions {
+
+        private final AtomicLong latest = new AtomicLong();
+        private final Map<String, Long> bySymbol = new ConcurrentHashMap<>();
+        private volatile long floor;
+
+        void bump(String symbol) {
+            long version = counter.incrementAndGet();
+            bySymbol.merge(symbol, version, Math::max);
+            latest.accumulateAndGet(version, Math::max);
+        }
+
+        void bumpAll() {
+            long version = counter.incrementAndGet();
+            floor = version;
+            latest.accumulateAndGet(version, Math::max);
+        }
+
+        long get() {
+            return latest.get();
+        }
+
+        long get(String symbol) {
+            Long version = bySymbol.get(symbol);
+            return Math.max(version != null ? version : 0, floor);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.trading.service;
+
+import com.trading.ignite.MarketPriceCache;
+import com.trading.ignite.PositionService;
+import com.trading.ignite.PositionUpdateProcessor;
+import com.trading.kafka.TradeConsumer;
+import com.trading.kafka.TradeDeduplicator;
+import com.trading.model.PositionAggregate;
+import com.trading.model.PositionRebuildResult;
+import com.trading.repository.PositionAggregateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rebuilds the Ignite positions from the trades stored in PostgreSQL
+ *
+ * Positions are summed per symbol with parallel per-day queries over one database snapshot
+ * (PositionAggregateRepository) and loaded into the cache in bulk. The same snapshot yields the
+ * trade_orders offsets stored with those trades, which is where TradeConsumer resumes,
+ * so no trade is missed or counted twice. Open positions are replayed in trade order to restore
+ * their average cost and realized PnL, and all positions are marked to the last prices in the
+ * market_prices cache.
+ *
+ * Runs at startup before the Kafka listeners start when the positions cache is empty
+ * (e.g. the Ignite cluster was restarted), and on demand through POST /api/admin/positions/rebuild,
+ * which stops this instance's listeners for the duration. Consumers on other instances must be
+ * stopped as well, or they may apply updates that the rebuild overwrites.
+ */
+@Service
+public class PositionRebuildService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(PositionRebuildService.class);
+
+    // Start before the Kafka listener containers and the web server (lower phases start first)
+    private static final int PHASE = Integer.MAX_VALUE - 4096;
+
+    @Autowired
+    private PositionAggregateRepository positionAggregateRepository;
+
+    @Autowired
+    private PositionService positionService;
+
+    @Autowired
+    private TradeDeduplicator tradeDeduplicator;
+
+    @Autowired
+    private MarketPriceCache marketPriceCache;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private TradeWriteBehindService tradeWriteBehindService;
+
+    @Autowired
+    private KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+    @Value("${trading.positions.rebuild.on-startup}")
+    private boolean rebuildOnStartup;
+
+    @Value("${trading.positions.rebuild.parallelism}")
+    private int parallelism;
+
+    private volatile boolean running;
+
+    /**
+     * Whether positions can be rebuilt on demand (not in write-behind mode, where consumed trades may still be queued)
+     */
+    public boolean isRebuildAvailable() {
+        return !tradeWriteBehindService.isEnabled();
+    }
+
+    /**
+     * Rebuild positions while this instance's Kafka listeners are stopped
+     */
+    public synchronized PositionRebuildResult rebuild() throws SQLException, InterruptedException {
+        if (!isRebuildAvailable()) {
+            throw new IllegalStateException("Positions cannot be rebuilt while trades are persisted write-behind");
+        }
+        boolean listenersRunning = kafkaListenerEndpointRegistry.isRunning();
+        if (listenersRunning) {
+            // Waits for in-flight batches to finish
+            kafkaListenerEndpointRegistry.stop();
+        }
+        try {
+            return rebuildPositions();
+        } finally {
+            if (listenersRunning) {
+                // Partitions are assigned again and resume from the stored offsets
+                kafkaListenerEndpointRegistry.start();
+            }
+        }
+    }
+
+    private PositionRebuildResult rebuildPositions() throws SQLException, InterruptedException {
+        long start = System.nanoTime();
+        PositionAggregate aggregate = positionAggregateRepository.aggregate(
+            TradeConsumer.GROUP_ID, TradeConsumer.TOPIC, PositionUpdateProcessor.PNL_SCALE, parallelism,
+            positionService::newPositionReplay);
+        long aggregated = System.nanoTime();
+
+        positionService.replaceAllPositions(aggregate.getPositions());
+        Map<String, Double> prices = new HashMap<>();
+        marketPriceCache.getAll().forEach((symbol, tick) -> prices.put(symbol, tick.getPrice()));
+        positionService.markToMarket(prices);
+        dataVersionService.positionsReplaced();
+        // Trades applied to Ignite but not persisted are no longer in the positions; let them apply again
+        tradeDeduplicator.clear();
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Rebuilt {} positions from {} trades in {} ms (aggregate {} ms), resuming at offsets {}",
+            aggregate.getPositions().size(), aggregate.getTradeCount(), durationMs,
+            (aggregated - start) / 1_000_000, aggregate.getOffsets());
+        return new PositionRebuildResult(aggregate.getPositions().size(), aggregate.getTradeCount(),
+            aggregate.getOffsets(), durationMs);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!rebuildOnStartup || !positionService.isEmpty()) {
+            return;
+        }
+        if (!isRebuildAvailable()) {
+            // The consumer resumes from Kafka's committed offsets, not from the rebuilt ones, and would apply
+            // trades that are already in PostgreSQL on top of the rebuilt positions
+            logger.warn("Positions cache is empty but positions are not rebuilt in write-behind mode; " +
+                "rebuild them manually after switching to sync persistence");
+            return;
+        }
+        logger.info("Positions cache is empty, rebuilding from PostgreSQL");
+        try {
+            rebuildPositions();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Rebuilding positions failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rebuilding positions", e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
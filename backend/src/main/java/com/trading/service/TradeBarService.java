@@ -0,0 +1,108 @@
+package com.trading.service;
+
+import com.trading.model.BarInterval;
+import com.trading.model.Trade;
+import com.trading.model.TradeBar;
+import com.trading.repository.TradeBarRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service maintaining the OHLCV rollups
+ * Newly inserted trades are aggregated into 1m bars, the 1m bars into 1h bars and the 1h bars
+ * into 1d bars; each level is merged into its table, so range queries never read raw trades
+ */
+@Service
+public class TradeBarService {
+
+    private static final Comparator<TradeBar> BAR_ORDER = Comparator
+        .comparing(TradeBar::getSymbol)
+        .thenComparing(TradeBar::getBucketStart);
+
+    @Autowired
+    private TradeBarRepository tradeBarRepository;
+
+    /**
+     * Adds trades to the rollups (runs in the caller's transaction)
+     * Only pass trades that were actually inserted, so redelivered trades are not counted twice
+     */
+    @Transactional
+    public void addTrades(List<Trade> trades) {
+        if (trades.isEmpty()) {
+            return;
+        }
+
+        List<TradeBar> bars = new ArrayList<>(trades.size());
+        for (Trade trade : trades) {
+            bars.add(toBar(trade));
+        }
+
+        for (BarInterval interval : BarInterval.values()) {
+            bars = rollUp(bars, interval);
+            tradeBarRepository.addAll(interval, bars);
+        }
+    }
+
+    /**
+     * Single-trade bar (bucketed by rollUp)
+     */
+    private static TradeBar toBar(Trade trade) {
+        LocalDateTime time = trade.getTradeTime();
+        double price = trade.getPrice();
+        return new TradeBar(trade.getSymbol(), time, price, time, price, price, price, time,
+            trade.getQuantity(), trade.getQuantity() * price, 1);
+    }
+
+    /**
+     * Merge bars into buckets of the given interval, sorted by symbol and bucket
+     */
+    private static List<TradeBar> rollUp(Collection<TradeBar> bars, BarInterval interval) {
+        Map<String, Map<LocalDateTime, TradeBar>> buckets = new HashMap<>();
+        for (TradeBar bar : bars) {
+            LocalDateTime bucketStart = interval.bucketStart(bar.getBucketStart());
+            Map<LocalDateTime, TradeBar> bySymbol = buckets.computeIfAbsent(bar.getSymbol(), symbol -> new HashMap<>());
+            TradeBar merged = bySymbol.get(bucketStart);
+            if (merged == null) {
+                merged = new TradeBar(bar.getSymbol(), bucketStart, bar.getOpen(), bar.getOpenTime(),
+                    bar.getHigh(), bar.getLow(), bar.getClose(), bar.getCloseTime(),
+                    bar.getVolume(), bar.getNotional(), bar.getTradeCount());
+                bySymbol.put(bucketStart, merged);
+            } else {
+                merge(merged, bar);
+            }
+        }
+
+        List<TradeBar> rolledUp = new ArrayList<>();
+        buckets.values().forEach(bySymbol -> rolledUp.addAll(bySymbol.values()));
+        rolledUp.sort(BAR_ORDER);
+        return rolledUp;
+    }
+
+    /**
+     * Same rules as the upsert in TradeBarRepository
+     */
+    private static void merge(TradeBar into, TradeBar bar) {
+        if (bar.getOpenTime().isBefore(into.getOpenTime())) {
+            into.setOpen(bar.getOpen());
+            into.setOpenTime(bar.getOpenTime());
+        }
+        if (!bar.getCloseTime().isBefore(into.getCloseTime())) {
+            into.setClose(bar.getClose());
+            into.setCloseTime(bar.getCloseTime());
+        }
+        into.setHigh(Math.max(into.getHigh(), bar.getHigh()));
+        into.setLow(Math.min(into.getLow(), bar.getLow()));
+        into.setVolume(into.getVolume() + bar.getVolume());
+        into.setNotional(into.getNotional() + bar.getNotional());
+        into.setTradeCount(into.getTradeCount() + bar.getTradeCount());
+    }
+}
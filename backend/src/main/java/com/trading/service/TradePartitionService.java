@@ -0,0 +1,119 @@
+package com.trading.service;
+
+import com.trading.repository.TradePartitionRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service for maintaining the daily partitions of the trades table
+ * Creates upcoming partitions ahead of time and drops partitions past the retention period
+ */
+@Service
+public class TradePartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradePartitionService.class);
+
+    @Autowired
+    private TradePartitionRepository tradePartitionRepository;
+
+    @Value("${trading.trades.partitions.days-ahead}")
+    private int daysAhead;
+
+    @Value("${trading.trades.partitions.retention-days}")
+    private int retentionDays;
+
+    private final Set<LocalDate> knownPartitions = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean partitioned;
+
+    /**
+     * Make sure partitions exist before the consumer starts inserting
+     */
+    @PostConstruct
+    public void init() {
+        maintainPartitions();
+    }
+
+    /**
+     * Create partitions from yesterday up to daysAhead days ahead and drop expired ones
+     */
+    @Scheduled(cron = "${trading.trades.partitions.maintenance-cron}")
+    public synchronized void maintainPartitions() {
+        partitioned = tradePartitionRepository.isPartitioned();
+        if (!partitioned) {
+            logger.warn("trades table is not partitioned, skipping partition maintenance");
+            return;
+        }
+
+        knownPartitions.clear();
+        knownPartitions.addAll(tradePartitionRepository.findPartitionDates());
+
+        LocalDate today = LocalDate.now();
+        for (LocalDate date = today.minusDays(1); !date.isAfter(today.plusDays(daysAhead)); date = date.plusDays(1)) {
+            createPartition(date);
+        }
+
+        // retention-days <= 0 keeps all history
+        if (retentionDays > 0) {
+            LocalDate cutoff = today.minusDays(retentionDays);
+            List<LocalDate> expired = new ArrayList<>();
+            for (LocalDate date : knownPartitions) {
+                if (date.isBefore(cutoff)) {
+                    expired.add(date);
+                }
+            }
+            for (LocalDate date : expired) {
+                tradePartitionRepository.dropPartition(date);
+                knownPartitions.remove(date);
+                logger.info("Dropped trades partition for {}", date);
+            }
+        }
+    }
+
+    /**
+     * Create missing partitions for the given days (e.g. late or replayed trades outside the maintained window)
+     * Runs outside the caller's transaction so DDL does not hold locks for the whole batch
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void ensurePartitions(Collection<LocalDate> dates) {
+        if (!partitioned) {
+            return;
+        }
+        for (LocalDate date : dates) {
+            if (!knownPartitions.contains(date)) {
+                createPartition(date);
+            }
+        }
+    }
+
+    private synchronized void createPartition(LocalDate date) {
+        if (knownPartitions.contains(date)) {
+            return;
+        }
+        try {
+            tradePartitionRepository.createPartition(date);
+            logger.info("Created trades partition for {}", date);
+        } catch (DataAccessException e) {
+            // Another backend instance may have created it concurrently
+            if (!tradePartitionRepository.findPartitionDates().contains(date)) {
+                throw e;
+            }
+        }
+        knownPartitions.add(date);
+    }
+}
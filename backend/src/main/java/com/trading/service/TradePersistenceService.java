@@ -0,0 +1,116 @@
+package com.trading.service;
+
+import com.trading.kafka.TradeConsumer;
+import com.trading.model.DailySymbolStats;
+import com.trading.model.Trade;
+import com.trading.repository.DailySymbolStatsRepository;
+import com.trading.repository.TradeJdbcRepository;
+import com.trading.repository.TradeOffsetRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service for persisting consumed trades to PostgreSQL
+ * Inserts the trades and updates the daily per-symbol aggregates, OHLCV rollups and consumed Kafka offsets
+ * in one transaction
+ * Publishes a TradesPersistedEvent with the newly inserted trades (delivered to
+ * transactional listeners after commit)
+ */
+@Service
+public class TradePersistenceService {
+
+    @Autowired
+    private TradeJdbcRepository tradeJdbcRepository;
+
+    @Autowired
+    private DailySymbolStatsRepository dailySymbolStatsRepository;
+
+    @Autowired
+    private TradePartitionService tradePartitionService;
+    
+    @Autowired
+    private TradeBarService tradeBarService;
+
+    @Autowired
+    private TradeOffsetRepository tradeOffsetRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Persists a batch of trades
+     * Only newly inserted trades are added to the aggregates, so redelivered trades are not counted twice
+     *
+     * @return number of trades actually inserted
+     */
+    @Transactional
+    public int persist(List<Trade> trades) {
+        return persist(trades, Map.of());
+    }
+
+    /**
+     * Persists a batch of trades consumed from trade_orders together with the next offset per partition,
+     * so the stored trades and offsets always match (positions rebuilt from the trades resume from there)
+     *
+     * @return number of trades actually inserted
+     */
+    @Transactional
+    public int persist(List<Trade> trades, Map<Integer, Long> nextOffsets) {
+        Set<LocalDate> tradeDates = new HashSet<>();
+        for (Trade trade : trades) {
+            tradeDates.add(trade.getTradeTime().toLocalDate());
+        }
+        tradePartitionService.ensurePartitions(tradeDates);
+
+        int[] counts = tradeJdbcRepository.saveAll(trades);
+
+        Map<LocalDate, Map<String, DailySymbolStats>> deltas = new HashMap<>();
+        List<Trade> inserted = new ArrayList<>(trades.size());
+
+        for (int i = 0; i < trades.size(); i++) {
+            // Plain (non-rewritten) JDBC batches report 1 for inserted rows and 0 for ON CONFLICT skips
+            if (counts[i] == 0) {
+                continue;
+            }
+            Trade trade = trades.get(i);
+            inserted.add(trade);
+
+            LocalDate tradeDate = trade.getTradeTime().toLocalDate();
+            DailySymbolStats delta = deltas
+                .computeIfAbsent(tradeDate, date -> new HashMap<>())
+                .computeIfAbsent(trade.getSymbol(), symbol -> new DailySymbolStats(tradeDate, symbol, 0, 0.0, 0));
+
+            // BUY: negative impact on quantity and PnL, SELL: positive impact
+            int signedQuantity = "BUY".equals(trade.getSide()) ? -trade.getQuantity() : trade.getQuantity();
+            delta.setTotalQuantity(delta.getTotalQuantity() + signedQuantity);
+            delta.setTotalPnl(delta.getTotalPnl() + signedQuantity * trade.getPrice());
+            delta.setTradeCount(delta.getTradeCount() + 1);
+        }
+
+        List<DailySymbolStats> orderedDeltas = new ArrayList<>();
+        deltas.values().forEach(bySymbol -> orderedDeltas.addAll(bySymbol.values()));
+        orderedDeltas.sort(Comparator
+            .comparing(DailySymbolStats::getTradeDate)
+            .thenComparing(DailySymbolStats::getSymbol));
+
+        dailySymbolStatsRepository.addAll(orderedDeltas);
+        tradeBarService.addTrades(inserted);
+        tradeOffsetRepository.saveAll(TradeConsumer.GROUP_ID, TradeConsumer.TOPIC, nextOffsets);
+
+        if (!inserted.isEmpty()) {
+            eventPublisher.publishEvent(new TradesPersistedEvent(inserted));
+        }
+        return inserted.size();
+    }
+}
@@ -1,12 +1,27 @@
 package com.trading.service;
 
+import com.trading.kafka.ProducerSaturatedException;
 import com.trading.kafka.TradeProducer;
+import com.trading.model.BatchTradeResult;
 import com.trading.model.TradeEvent;
 import com.trading.model.TradeRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 /**
  * Service for handling trade operations
@@ -18,11 +33,96 @@ public class TradeService {
     @Autowired
     private TradeProducer tradeProducer;
     
+    @Autowired
+    private Validator validator;
+    
+    @Value("${trading.trade.ack-timeout}")
+    private Duration ackTimeout;
+    
     /**
      * Places a trade by publishing to Kafka
      * Actual processing happens asynchronously in the consumer
+     * 
+     * @throws ProducerSaturatedException if too many sends are in flight (the trade is not published)
      */
     public TradeEvent placeTrade(TradeRequest request) {
+        TradeEvent tradeEvent = toTradeEvent(request);
+        
+        // Publish to Kafka
+        tradeProducer.publishTrade(tradeEvent);
+        
+        return tradeEvent;
+    }
+    
+    /**
+     * Places a trade, optionally waiting up to ack-timeout for the broker acknowledgement
+     * 
+     * @throws ProducerSaturatedException if too many sends are in flight (the trade is not published)
+     * @throws ExecutionException if Kafka rejected the trade
+     * @throws TimeoutException if it was not acknowledged in time (it may still be published)
+     */
+    public TradeEvent placeTrade(TradeRequest request, boolean waitForAck)
+            throws ExecutionException, TimeoutException, InterruptedException {
+        if (!waitForAck) {
+            return placeTrade(request);
+        }
+        TradeEvent tradeEvent = toTradeEvent(request);
+        tradeProducer.publishTrade(tradeEvent).get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        return tradeEvent;
+    }
+    
+    /**
+     * Places a batch of trades
+     * Each order is validated on its own; valid orders are all published before waiting,
+     * so the sends are batched by the producer. Returns once every send is acknowledged or failed.
+     * 
+     * @throws ProducerSaturatedException if the valid orders do not fit in the remaining in-flight sends
+     *         (none of them is published)
+     */
+    public List<BatchTradeResult> placeTrades(List<TradeRequest> requests) {
+        List<BatchTradeResult> results = new ArrayList<>(requests.size());
+        List<TradeEvent> tradeEvents = new ArrayList<>(requests.size());
+        
+        for (int i = 0; i < requests.size(); i++) {
+            TradeRequest request = requests.get(i);
+            Set<ConstraintViolation<TradeRequest>> violations = request != null
+                ? validator.validate(request)
+                : Set.of();
+            
+            if (request == null || !violations.isEmpty()) {
+                String error = request == null
+                    ? "Order is required"
+                    : violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", "));
+                results.add(new BatchTradeResult(i, BatchTradeResult.Status.REJECTED, null, error));
+                continue;
+            }
+            
+            TradeEvent tradeEvent = toTradeEvent(request);
+            tradeEvents.add(tradeEvent);
+            results.add(new BatchTradeResult(i, BatchTradeResult.Status.ACCEPTED, tradeEvent, null));
+        }
+        
+        // Admitted all-or-nothing, so a rejected basket is never partially published
+        List<? extends CompletableFuture<?>> sends = tradeProducer.publishTrades(tradeEvents);
+        
+        // Wait for all acknowledgements
+        int send = 0;
+        for (BatchTradeResult result : results) {
+            if (result.getStatus() == BatchTradeResult.Status.REJECTED) {
+                continue;
+            }
+            try {
+                sends.get(send++).join();
+            } catch (CompletionException e) {
+                result.setStatus(BatchTradeResult.Status.FAILED);
+                result.setError(e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            }
+        }
+        
+        return results;
+    }
+    
+    private TradeEvent toTradeEvent(TradeRequest request) {
         // Create trade event
         TradeEvent tradeEvent = new TradeEvent();
         tradeEvent.setTradeId(UUID.randomUUID());
@@ -31,10 +131,6 @@ public class TradeService {
         tradeEvent.setQuantity(request.getQuantity());
         tradeEvent.setPrice(request.getPrice());
         tradeEvent.setTimestamp(System.currentTimeMillis());
-        
-        // Publish to Kafka
-        tradeProducer.publishTrade(tradeEvent);
-        
         return tradeEvent;
     }
 }
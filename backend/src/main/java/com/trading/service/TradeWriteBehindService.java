@@ -0,0 +1,203 @@
+package com.trading.service;
+
+import com.trading.metrics.TradeMetrics;
+import com.trading.model.Trade;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind persistence of consumed trades (trading.persistence.mode=write-behind)
+ *
+ * The consumer only enqueues trades; flusher threads write them to PostgreSQL through
+ * TradePersistenceService in batches of up to flush-size, at least every flush-frequency.
+ * The queue is bounded, so a slow database eventually blocks the consumer instead of growing without limit.
+ *
+ * Knobs mirror Ignite's write-behind settings (flush size, flush frequency, flush thread count).
+ * Trades in the queue are not durable: offsets are committed once trades are enqueued, so a crash
+ * loses what was not flushed yet. On shutdown the queue is drained after the Kafka listeners stop.
+ */
+@Service
+public class TradeWriteBehindService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradeWriteBehindService.class);
+
+    // Stop after the Kafka listener containers and the graceful web server shutdown (higher phases stop first)
+    private static final int PHASE = Integer.MAX_VALUE - 2048;
+
+    private static final long RETRY_BACKOFF_MS = 1000;
+    private static final int SHUTDOWN_FLUSH_ATTEMPTS = 3;
+
+    @Autowired
+    private TradePersistenceService tradePersistenceService;
+
+    @Autowired
+    private TradeMetrics tradeMetrics;
+
+    @Value("${trading.persistence.mode}")
+    private String mode;
+
+    @Value("${trading.persistence.write-behind.flush-size}")
+    private int flushSize;
+
+    @Value("${trading.persistence.write-behind.flush-frequency}")
+    private Duration flushFrequency;
+
+    @Value("${trading.persistence.write-behind.flush-thread-count}")
+    private int flushThreadCount;
+
+    @Value("${trading.persistence.write-behind.queue-capacity}")
+    private int queueCapacity;
+
+    private BlockingQueue<Trade> queue;
+    private final List<Thread> flushers = new ArrayList<>();
+    private volatile boolean running;
+
+    public boolean isEnabled() {
+        return "write-behind".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * Queue trades for persistence, blocking while the queue is full
+     */
+    public void enqueue(List<Trade> trades) throws InterruptedException {
+        for (Trade trade : trades) {
+            queue.put(trade);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        for (int i = 0; i < flushThreadCount; i++) {
+            Thread flusher = new Thread(this::runFlusher, "trade-write-behind-" + i);
+            flusher.start();
+            flushers.add(flusher);
+        }
+        logger.info("Write-behind persistence started with {} flush threads", flushThreadCount);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (Thread flusher : flushers) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushers.clear();
+
+        // Final flush of everything still queued
+        List<Trade> batch = new ArrayList<>(flushSize);
+        while (queue.drainTo(batch, flushSize) > 0) {
+            flushOnShutdown(batch);
+            batch.clear();
+        }
+        logger.info("Write-behind persistence stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void runFlusher() {
+        List<Trade> batch = new ArrayList<>(flushSize);
+        long flushFrequencyNanos = flushFrequency.toNanos();
+        while (running) {
+            try {
+                // Collect until the batch is full or flush-frequency has passed since the first trade
+                Trade first = queue.poll(flushFrequencyNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushFrequencyNanos;
+                while (batch.size() < flushSize) {
+                    queue.drainTo(batch, flushSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= flushSize || remaining <= 0) {
+                        break;
+                    }
+                    Trade next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flushWithRetry(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // Anything collected but not flushed goes back to the shared final flush
+        if (!batch.isEmpty()) {
+            flushOnShutdown(batch);
+        }
+    }
+
+    /**
+     * Retry until the batch is written (keeps order and provides backpressure while the database is down)
+     */
+    private void flushWithRetry(List<Trade> batch) throws InterruptedException {
+        while (true) {
+            try {
+                flush(batch);
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    flushOnShutdown(batch);
+                    return;
+                }
+                logger.error("Write-behind flush of {} trades failed, retrying", batch.size(), e);
+                Thread.sleep(RETRY_BACKOFF_MS);
+            }
+        }
+    }
+
+    private void flushOnShutdown(List<Trade> batch) {
+        for (int attempt = 1; attempt <= SHUTDOWN_FLUSH_ATTEMPTS; attempt++) {
+            try {
+                flush(batch);
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Write-behind flush of {} trades failed during shutdown (attempt {})",
+                    batch.size(), attempt, e);
+            }
+        }
+        logger.error("Dropping {} unflushed trades on shutdown", batch.size());
+    }
+
+    private void flush(List<Trade> batch) {
+        long start = System.nanoTime();
+        int inserted = tradePersistenceService.persist(batch);
+        tradeMetrics.recordRepositorySave(System.nanoTime() - start);
+        logger.debug("Write-behind flushed {} trades ({} new)", batch.size(), inserted);
+    }
+}
@@ -0,0 +1,17 @@
+package com.trading.service;
+
+import com.trading.model.Trade;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Application event published when a batch of new trades has been written to PostgreSQL
+ * Redelivered trades that were already stored are not included
+ */
+@Data
+@AllArgsConstructor
+public class TradesPersistedEvent {
+    private List<Trade> trades;
+}
@@ -0,0 +1,247 @@
+package com.trading.service;
+
+import com.trading.ignite.PositionService;
+import com.trading.model.Position;
+import com.trading.model.Trade;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.cache.Cache;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service for pushing position and trade updates to dashboards over Server-Sent Events
+ *
+ * Position changes come from an Ignite ContinuousQuery on the positions cache (cluster-wide),
+ * new trades from TradesPersistedEvent after the consumer's transaction commits.
+ * Updates are buffered per client and flushed on a fixed interval:
+ * - positions are conflated, so a slow client only gets the latest value per symbol
+ * - trades are queued up to a limit; on overflow the client gets a "resync" event instead
+ */
+@Service
+public class UpdateStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpdateStreamService.class);
+
+    @Autowired
+    private PositionService positionService;
+
+    @Value("${trading.stream.flush-interval-ms}")
+    private long flushIntervalMs;
+
+    @Value("${trading.stream.heartbeat-interval-ms}")
+    private long heartbeatIntervalMs;
+
+    @Value("${trading.stream.max-pending-trades}")
+    private int maxPendingTrades;
+
+    @Value("${trading.stream.sender-threads}")
+    private int senderThreads;
+
+    private final Set<StreamClient> clients = ConcurrentHashMap.newKeySet();
+
+    private QueryCursor<Cache.Entry<String, Position>> positionSubscription;
+    private ScheduledExecutorService flushScheduler;
+    private ExecutorService sender;
+
+    @PostConstruct
+    public void start() {
+        positionSubscription = positionService.subscribe(this::onPositionChanged);
+
+        sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "update-stream-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "update-stream-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushScheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flushScheduler.shutdownNow();
+        sender.shutdownNow();
+        positionSubscription.close();
+        clients.forEach(client -> client.emitter.complete());
+        clients.clear();
+    }
+
+    /**
+     * Register a new dashboard connection
+     * The client first receives all current positions, then only changes
+     */
+    public SseEmitter connect() {
+        // No timeout - the connection lives until the client goes away
+        SseEmitter emitter = new SseEmitter(0L);
+        StreamClient client = new StreamClient(emitter);
+
+        emitter.onCompletion(() -> clients.remove(client));
+        emitter.onTimeout(() -> clients.remove(client));
+        emitter.onError(e -> clients.remove(client));
+
+        // Register before taking the snapshot so no change is missed;
+        // putIfAbsent keeps a newer change that arrived while the snapshot was read
+        clients.add(client);
+        positionService.getAllPositions().forEach(client.pendingPositions::putIfAbsent);
+        client.snapshotPending.set(true);
+
+        return emitter;
+    }
+
+    private void onPositionChanged(String symbol, Position position) {
+        if (position == null) {
+            return;
+        }
+        for (StreamClient client : clients) {
+            client.pendingPositions.put(symbol, position);
+        }
+    }
+
+    /**
+     * Queue newly persisted trades for every client (runs after the consumer's transaction commits)
+     */
+    @TransactionalEventListener
+    public void onTradesPersisted(TradesPersistedEvent event) {
+        for (StreamClient client : clients) {
+            client.offerTrades(event.getTrades(), maxPendingTrades);
+        }
+    }
+
+    private void flush() {
+        long now = System.currentTimeMillis();
+        for (StreamClient client : clients) {
+            boolean heartbeatDue = now - client.lastSentAt >= heartbeatIntervalMs;
+            if ((client.hasPending() || heartbeatDue) && client.sending.compareAndSet(false, true)) {
+                sender.execute(() -> send(client));
+            }
+        }
+    }
+
+    /**
+     * Send everything pending for one client
+     * Runs on a sender thread; while a slow client is still sending, new updates keep conflating
+     */
+    private void send(StreamClient client) {
+        try {
+            boolean sent = false;
+
+            Map<String, Position> positions = client.drainPositions();
+            if (client.snapshotPending.getAndSet(false)) {
+                client.emitter.send(SseEmitter.event().name("snapshot").data(positions));
+                sent = true;
+            } else if (!positions.isEmpty()) {
+                client.emitter.send(SseEmitter.event().name("positions").data(positions));
+                sent = true;
+            }
+
+            if (client.tradesOverflowed.get()) {
+                client.drainTrades();
+                client.tradesOverflowed.set(false);
+                client.emitter.send(SseEmitter.event().name("resync").data(""));
+                sent = true;
+            } else {
+                List<Trade> trades = client.drainTrades();
+                if (!trades.isEmpty()) {
+                    client.emitter.send(SseEmitter.event().name("trades").data(trades));
+                    sent = true;
+                }
+            }
+
+            // Keep idle connections alive and detect clients that went away
+            if (!sent) {
+                client.emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+            client.lastSentAt = System.currentTimeMillis();
+        } catch (IOException | IllegalStateException e) {
+            // Client disconnected
+            logger.debug("Dropping update stream client: {}", e.getMessage());
+            clients.remove(client);
+            client.emitter.completeWithError(e);
+        } finally {
+            client.sending.set(false);
+        }
+    }
+
+    /**
+     * Per-connection buffers
+     */
+    private static class StreamClient {
+        private final SseEmitter emitter;
+        private final Map<String, Position> pendingPositions = new ConcurrentHashMap<>();
+        private final Queue<Trade> pendingTrades = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingTradeCount = new AtomicInteger();
+        private final AtomicBoolean tradesOverflowed = new AtomicBoolean();
+        private final AtomicBoolean snapshotPending = new AtomicBoolean();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile long lastSentAt = System.currentTimeMillis();
+
+        StreamClient(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        boolean hasPending() {
+            return snapshotPending.get() || !pendingPositions.isEmpty()
+                || !pendingTrades.isEmpty() || tradesOverflowed.get();
+        }
+
+        void offerTrades(List<Trade> trades, int maxPendingTrades) {
+            if (tradesOverflowed.get()) {
+                return;
+            }
+            if (pendingTradeCount.addAndGet(trades.size()) > maxPendingTrades) {
+                // Too far behind - tell the client to reload instead of buffering without limit
+                pendingTradeCount.addAndGet(-trades.size());
+                tradesOverflowed.set(true);
+                return;
+            }
+            pendingTrades.addAll(trades);
+        }
+
+        Map<String, Position> drainPositions() {
+            Map<String, Position> drained = new HashMap<>();
+            for (String symbol : pendingPositions.keySet()) {
+                Position position = pendingPositions.remove(symbol);
+                if (position != null) {
+                    drained.put(symbol, position);
+                }
+            }
+            return drained;
+        }
+
+        List<Trade> drainTrades() {
+            List<Trade> drained = new ArrayList<>();
+            Trade trade;
+            while ((trade = pendingTrades.poll()) != null) {
+                drained.add(trade);
+            }
+            pendingTradeCount.addAndGet(-drained.size());
+            return drained;
+        }
+    }
+}
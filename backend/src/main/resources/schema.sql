@@ -1,13 +1,72 @@
 -- Create trades table for historical analytics
+-- Partitioned by day on trade_time: daily partitions (trades_pYYYYMMDD) are created ahead of time
+-- and old ones detached/dropped by TradePartitionService in the backend
 CREATE TABLE IF NOT EXISTS trades (
-  trade_id UUID PRIMARY KEY,
+  trade_id UUID NOT NULL,
   symbol VARCHAR(20) NOT NULL,
   side VARCHAR(10) NOT NULL,
   quantity INT NOT NULL,
   price DOUBLE PRECISION NOT NULL,
-  trade_time TIMESTAMP NOT NULL
-);
+  trade_time TIMESTAMP NOT NULL,
+  -- Primary keys on partitioned tables must include the partition column, so trade_id alone is not
+  -- unique across days; redeliveries carry the original trade_time and are still caught by this key
+  PRIMARY KEY (trade_id, trade_time)
+) PARTITION BY RANGE (trade_time);
 
--- Create index on symbol and trade_time for faster analytics queries
+-- Create index on symbol and trade_time for faster analytics queries (created on every partition)
 CREATE INDEX IF NOT EXISTS idx_trades_symbol_time ON trades(symbol, trade_time);
 
+-- Index for keyset pagination of trades ordered by (trade_time, trade_id)
+CREATE INDEX IF NOT EXISTS idx_trades_time_id ON trades(trade_time, trade_id);
+
+-- Per-day, per-symbol aggregates maintained by the consumer in the same transaction as the trade inserts
+-- Lets /api/analytics/daily read O(symbols) rows instead of grouping all of today's trades
+CREATE TABLE IF NOT EXISTS daily_symbol_stats (
+  trade_date DATE NOT NULL,
+  symbol VARCHAR(20) NOT NULL,
+  total_quantity BIGINT NOT NULL,
+  total_pnl DOUBLE PRECISION NOT NULL,
+  trade_count BIGINT NOT NULL,
+  PRIMARY KEY (trade_date, symbol)
+);
+
+-- OHLCV rollups per symbol and bucket (1 minute, 1 hour, 1 day), maintained by the consumer in the
+-- same transaction as the trade inserts: 1m bars from the new trades, 1h from 1m, 1d from 1h
+-- open_time/close_time are the times of the first/last trade so bars can be merged in any order
+CREATE TABLE IF NOT EXISTS trade_bars_1m (
+  symbol VARCHAR(20) NOT NULL,
+  bucket_start TIMESTAMP NOT NULL,
+  open_price DOUBLE PRECISION NOT NULL,
+  open_time TIMESTAMP NOT NULL,
+  high_price DOUBLE PRECISION NOT NULL,
+  low_price DOUBLE PRECISION NOT NULL,
+  close_price DOUBLE PRECISION NOT NULL,
+  close_time TIMESTAMP NOT NULL,
+  volume BIGINT NOT NULL,
+  notional DOUBLE PRECISION NOT NULL,
+  trade_count BIGINT NOT NULL,
+  PRIMARY KEY (symbol, bucket_start)
+);
+CREATE INDEX IF NOT EXISTS idx_trade_bars_1m_bucket ON trade_bars_1m(bucket_start);
+
+CREATE TABLE IF NOT EXISTS trade_bars_1h (LIKE trade_bars_1m INCLUDING ALL);
+CREATE TABLE IF NOT EXISTS trade_bars_1d (LIKE trade_bars_1m INCLUDING ALL);
+
+-- Backfills of the aggregate tables from the stored trades already done in this database
+-- AggregateBackfillService runs each missing one on backend startup (e.g. after schema.sql is applied
+-- to a database that has trades from before the aggregate tables existed)
+CREATE TABLE IF NOT EXISTS aggregate_backfills (
+  name VARCHAR(100) NOT NULL PRIMARY KEY,
+  completed_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+-- Next Kafka offset per trade_orders partition covered by the stored trades
+-- Written in the same transaction as the trade inserts; positions rebuilt from trades resume from here
+CREATE TABLE IF NOT EXISTS trade_consumer_offsets (
+  group_id VARCHAR(100) NOT NULL,
+  topic VARCHAR(100) NOT NULL,
+  partition_id INT NOT NULL,
+  next_offset BIGINT NOT NULL,
+  updated_at TIMESTAMP NOT NULL DEFAULT now(),
+  PRIMARY KEY (group_id, topic, partition_id)
+);
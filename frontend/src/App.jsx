@@ -28,11 +28,14 @@ function App() {
 		}
 	};
 
-	// Fetch trades for today
+	// Fetch the most recent trades for today (first page only)
 	const fetchTradesToday = async () => {
 		try {
-			const response = await axios.get(`${API_URL}/api/analytics/trades/today`);
-			setTradesToday(response.data);
+			const response = await axios.get(
+				`${API_URL}/api/analytics/trades/today/page`,
+				{ params: { limit: 100 } }
+			);
+			setTradesToday(response.data.trades);
 		} catch (error) {
 			console.error("Error fetching trades:", error);
 		}
@@ -48,20 +51,43 @@ function App() {
 		}
 	};
 
-	// Load data on mount and refresh periodically
+	// Load data on mount, then follow server-pushed updates
 	useEffect(() => {
-		fetchPositions();
-		fetchTradesToday();
-		fetchDailyAnalytics();
-
-		// Refresh data every 2 seconds
-		const interval = setInterval(() => {
+		const refreshAll = () => {
 			fetchPositions();
 			fetchTradesToday();
 			fetchDailyAnalytics();
-		}, 2000);
+		};
+		refreshAll();
+
+		const events = new EventSource(`${API_URL}/api/stream`);
+
+		// Full positions on (re)connect, then only changed symbols
+		events.addEventListener("snapshot", (e) => {
+			setPositions(JSON.parse(e.data));
+		});
+		events.addEventListener("positions", (e) => {
+			const changed = JSON.parse(e.data);
+			setPositions((prev) => ({ ...prev, ...changed }));
+		});
+
+		// Newly persisted trades: prepend them and refresh the (cheap) daily aggregates
+		events.addEventListener("trades", (e) => {
+			const trades = JSON.parse(e.data).reverse();
+			setTradesToday((prev) => [...trades, ...prev].slice(0, 100));
+			fetchDailyAnalytics();
+		});
 
-		return () => clearInterval(interval);
+		// Server dropped buffered updates for us - reload everything
+		events.addEventListener("resync", refreshAll);
+
+		// Slow safety refresh in case the stream is unavailable
+		const interval = setInterval(refreshAll, 30000);
+
+		return () => {
+			events.close();
+			clearInterval(interval);
+		};
 	}, []);
 
 	const handleInputChange = (e) => {
@@ -97,12 +123,6 @@ function App() {
 				price: "",
 			}));
 
-			// Refresh data after a short delay
-			setTimeout(() => {
-				fetchPositions();
-				fetchTradesToday();
-				fetchDailyAnalytics();
-			}, 500);
 		} catch (error) {
 			setMessage(error.response?.data?.message || "Error placing trade");
 			setMessageType("error");
@@ -223,6 +243,9 @@ function App() {
 									<th>Symbol</th>
 									<th>Net Quantity</th>
 									<th>PnL</th>
+									<th>Mark</th>
+									<th>Realized</th>
+									<th>Unrealized</th>
 								</tr>
 							</thead>
 							<tbody>
@@ -235,6 +258,13 @@ function App() {
 										<td className={position.pnl >= 0 ? "positive" : "negative"}>
 											₹{formatCurrency(position.pnl)}
 										</td>
+										<td>{position.markPrice != null ? `₹${formatCurrency(position.markPrice)}` : "-"}</td>
+										<td className={position.realizedPnl >= 0 ? "positive" : "negative"}>
+											₹{formatCurrency(position.realizedPnl)}
+										</td>
+										<td className={position.unrealizedPnl >= 0 ? "positive" : "negative"}>
+											{position.unrealizedPnl != null ? `₹${formatCurrency(position.unrealizedPnl)}` : "-"}
+										</td>
 									</tr>
 								))}
 							</tbody>